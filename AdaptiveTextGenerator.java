@@ -0,0 +1,254 @@
+package org.example.util;
+
+import org.example.model.BigramStats;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Generates drill passages from a first-order Markov model of the words in a corpus, weighted
+ * towards words containing the letter bigrams a user types slowest or least accurately.
+ * <p>
+ * The model is held in primitive compressed sparse row tables: the successors of word {@code w}
+ * are {@code successors[rowStart[w] .. rowStart[w + 1])} with matching transition counts. A
+ * {@link Profile} folds one user's {@link BigramStats} into per-row cumulative weights, after which
+ * each generated word costs one binary search within its row. Both the model and profiles are
+ * immutable and can be shared between threads.
+ */
+public class AdaptiveTextGenerator {
+    private static final Logger LOGGER = Logger.getLogger(AdaptiveTextGenerator.class.getName());
+
+    // How sharply generation favours weak words; 0 would ignore the user's history
+    private static final double BIAS_EXPONENT = 3.0;
+    private static final double MIN_BIAS = 0.1;
+    private static final double MAX_BIAS = 50.0;
+    // Chance of jumping to a fresh weighted word instead of following the chain, which keeps
+    // weak words appearing even when no transition leads to them
+    private static final double JUMP_PROBABILITY = 0.15;
+
+    private final String[] words;
+    private final int[] wordCounts;
+    private final int[] rowStart;
+    private final int[] successors;
+    private final int[] transitionCounts;
+    // Letter bigram indices of each word, in CSR form like the transitions
+    private final int[] bigramStart;
+    private final short[] bigrams;
+
+    private AdaptiveTextGenerator(String[] words, int[] wordCounts, int[] rowStart, int[] successors,
+                                  int[] transitionCounts) {
+        this.words = words;
+        this.wordCounts = wordCounts;
+        this.rowStart = rowStart;
+        this.successors = successors;
+        this.transitionCounts = transitionCounts;
+
+        bigramStart = new int[words.length + 1];
+        short[] all = new short[64];
+        int count = 0;
+        for (int w = 0; w < words.length; w++) {
+            bigramStart[w] = count;
+            String word = words[w];
+            for (int i = 1; i < word.length(); i++) {
+                int bigram = BigramStats.index(word.charAt(i - 1), word.charAt(i));
+                if (bigram < 0) continue;
+                if (count == all.length) all = Arrays.copyOf(all, count * 2);
+                all[count++] = (short) bigram;
+            }
+        }
+        bigramStart[words.length] = count;
+        bigrams = Arrays.copyOf(all, count);
+    }
+
+    /**
+     * Builds the word model from whitespace-separated passages. Words keep their case and
+     * punctuation, so generated text reads like the corpus it came from.
+     * @param passages Supplies passage i
+     * @param count The number of passages
+     * @return The model
+     * @throws IllegalArgumentException if the passages contain no words
+     */
+    public static AdaptiveTextGenerator build(IntFunction<? extends CharSequence> passages, int count) {
+        long start = System.nanoTime();
+        Map<String, Integer> ids = new HashMap<>();
+        int[] wordCounts = new int[256];
+        // Each transition packed as (from << 32 | to), sorted and run-length counted below
+        long[] pairs = new long[1024];
+        int pairCount = 0;
+
+        for (int p = 0; p < count; p++) {
+            CharSequence passage = passages.apply(p);
+            int previous = -1;
+            int i = 0;
+            while (i < passage.length()) {
+                while (i < passage.length() && Character.isWhitespace(passage.charAt(i))) i++;
+                int wordStart = i;
+                while (i < passage.length() && !Character.isWhitespace(passage.charAt(i))) i++;
+                if (i == wordStart) break;
+
+                String word = passage.subSequence(wordStart, i).toString();
+                Integer id = ids.get(word);
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(word, id);
+                    if (id == wordCounts.length) wordCounts = Arrays.copyOf(wordCounts, id * 2);
+                }
+                wordCounts[id]++;
+                if (previous >= 0) {
+                    if (pairCount == pairs.length) pairs = Arrays.copyOf(pairs, pairCount * 2);
+                    pairs[pairCount++] = ((long) previous << 32) | id;
+                }
+                previous = id;
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("The corpus contains no words");
+        }
+
+        String[] words = new String[ids.size()];
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            words[entry.getValue()] = entry.getKey();
+        }
+
+        Arrays.sort(pairs, 0, pairCount);
+        int[] rowStart = new int[words.length + 1];
+        int[] successors = new int[pairCount];
+        int[] transitionCounts = new int[pairCount];
+        int edges = 0;
+        for (int i = 0; i < pairCount; i++) {
+            if (edges > 0 && pairs[i] == pairs[i - 1]) {
+                transitionCounts[edges - 1]++;
+                continue;
+            }
+            successors[edges] = (int) pairs[i];
+            transitionCounts[edges] = 1;
+            rowStart[(int) (pairs[i] >>> 32) + 1]++;
+            edges++;
+        }
+        for (int w = 0; w < words.length; w++) {
+            rowStart[w + 1] += rowStart[w];
+        }
+
+        AdaptiveTextGenerator generator = new AdaptiveTextGenerator(words, Arrays.copyOf(wordCounts, words.length),
+            rowStart, Arrays.copyOf(successors, edges), Arrays.copyOf(transitionCounts, edges));
+        LOGGER.info(String.format("Built drill word model: %d words, %d transitions from %d passages in %.1f ms",
+            words.length, edges, count, (System.nanoTime() - start) / 1e6));
+        return generator;
+    }
+
+    public int getWordCount() { return words.length; }
+    public int getTransitionCount() { return successors.length; }
+
+    /**
+     * Weights the model for one user. Each word's bias is its mean bigram weakness (see
+     * {@link BigramStats#weakness()}) relative to an average word, raised to {@link #BIAS_EXPONENT};
+     * words without letter bigrams are neutral. Costs O(words + transitions), so build it once per
+     * change in the user's statistics, not per passage.
+     * @param stats The user's statistics, or null for an unweighted profile
+     * @return The profile
+     */
+    public Profile profile(BigramStats stats) {
+        double[] weakness = stats != null ? stats.weakness() : null;
+        double[] bias = new double[words.length];
+        for (int w = 0; w < words.length; w++) {
+            int from = bigramStart[w];
+            int to = bigramStart[w + 1];
+            if (weakness == null || from == to) {
+                bias[w] = 1.0;
+                continue;
+            }
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += weakness[bigrams[i]];
+            }
+            // An average bigram has weakness 2
+            double relative = sum / (to - from) / 2.0;
+            bias[w] = Math.max(MIN_BIAS, Math.min(MAX_BIAS, Math.pow(relative, BIAS_EXPONENT)));
+        }
+
+        double[] wordWeights = new double[words.length];
+        for (int w = 0; w < words.length; w++) {
+            wordWeights[w] = wordCounts[w] * bias[w];
+        }
+        double[] cumulative = new double[successors.length];
+        for (int w = 0; w < words.length; w++) {
+            double total = 0;
+            for (int e = rowStart[w]; e < rowStart[w + 1]; e++) {
+                total += transitionCounts[e] * bias[successors[e]];
+                cumulative[e] = total;
+            }
+        }
+        return new Profile(new AliasTable(wordWeights), cumulative);
+    }
+
+    /**
+     * A user's weighting of the model: an alias table over all words for starting and jumping,
+     * and running totals of successor weights within each transition row.
+     */
+    public static class Profile {
+        private final AliasTable words;
+        private final double[] cumulative;
+
+        private Profile(AliasTable words, double[] cumulative) {
+            this.words = words;
+            this.cumulative = cumulative;
+        }
+    }
+
+    /**
+     * Generates a passage.
+     * @param profile The user's profile from {@link #profile(BigramStats)}
+     * @param wordCount The number of words
+     * @return The passage
+     */
+    public String generateText(Profile profile, int wordCount) {
+        StringBuilder text = new StringBuilder(wordCount * 8);
+        appendText(profile, wordCount, new SplittableRandom(), text);
+        return text.toString();
+    }
+
+    /**
+     * Appends a passage, walking the Markov chain and occasionally jumping to a fresh word.
+     * @param profile The user's profile from {@link #profile(BigramStats)}
+     * @param wordCount The number of words
+     * @param random The random source; not shared between threads
+     * @param text Where to append the words, separated by single spaces
+     */
+    public void appendText(Profile profile, int wordCount, SplittableRandom random, StringBuilder text) {
+        int word = -1;
+        for (int i = 0; i < wordCount; i++) {
+            word = word < 0 || random.nextDouble() < JUMP_PROBABILITY
+                ? profile.words.sample(random)
+                : next(profile, word, random);
+            if (i > 0) text.append(' ');
+            text.append(words[word]);
+        }
+    }
+
+    private int next(Profile profile, int word, SplittableRandom random) {
+        int from = rowStart[word];
+        int to = rowStart[word + 1];
+        if (from == to) {
+            // Last word of the corpus with no successor
+            return profile.words.sample(random);
+        }
+        double[] cumulative = profile.cumulative;
+        double target = random.nextDouble() * cumulative[to - 1];
+        // First edge whose running total exceeds the target
+        int low = from;
+        int high = to - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return successors[low];
+    }
+}
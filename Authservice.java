@@ -7,8 +7,12 @@ import org.example.util.PasswordHasher;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class AuthService {
+    private static final Logger LOGGER = Logger.getLogger(AuthService.class.getName());
     private final UserDAO userDAO;
     private User currentUser;
 
@@ -37,21 +41,67 @@ public class AuthService {
         return false;
     }
 
+    /**
+     * @throws SecurityException if the attempt is throttled or the username is locked out
+     */
     public boolean login(String username, String password) throws SQLException {
+        LoginThrottle throttle = LoginThrottle.getInstance();
+        throttle.acquire(username);
         Optional<User> userOpt = userDAO.findByUsername(username);
         
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             if (PasswordHasher.verifyPassword(password, user.getPasswordHash())) {
+                throttle.recordSuccess(username);
+                upgradePasswordHash(user, password);
                 user.setLastLogin(java.time.LocalDateTime.now());
                 userDAO.updateUser(user);
                 this.currentUser = user;
+                EventBus.getInstance().publish(new UserLoggedInEvent(user));
                 return true;
             }
         }
+        throttle.recordFailure(username);
         return false;
     }
 
+    /**
+     * Registers on the password hashing executor, so hashing never blocks the caller's thread.
+     * @return A future completed with the result of {@link #register(String, String, String)}
+     */
+    public CompletableFuture<Boolean> registerAsync(String username, String password, String email) {
+        return PasswordHasher.submit(() -> register(username, password, email));
+    }
+
+    /**
+     * Logs in on the password hashing executor, so verifying never blocks the caller's thread.
+     * @return A future completed with the result of {@link #login(String, String)}
+     */
+    public CompletableFuture<Boolean> loginAsync(String username, String password) {
+        return PasswordHasher.submit(() -> login(username, password));
+    }
+
+    /**
+     * Replaces a legacy or outdated hash now that the password is known to be right. The rehash
+     * is queued on the hashing executor so the login returns after a single verification; a
+     * failed or rejected upgrade is retried at the next login and never fails this one.
+     */
+    private void upgradePasswordHash(User user, String password) {
+        if (!PasswordHasher.needsRehash(user.getPasswordHash())) return;
+        PasswordHasher.submit(() -> {
+            String upgraded = PasswordHasher.hashPassword(password);
+            if (userDAO.updatePasswordHash(user.getUserId(), upgraded)) {
+                user.setPasswordHash(upgraded);
+                LOGGER.info("Upgraded password hash for user: " + user.getUsername());
+            }
+            return null;
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOGGER.log(Level.WARNING, "Could not upgrade password hash for user: " + user.getUsername(), error);
+            }
+        });
+    }
+
     public void logout() {
         this.currentUser = null;
     }
@@ -0,0 +1,120 @@
+package org.example.model;
+
+/**
+ * Per-user typing statistics for each letter bigram (the expected previous and current letter):
+ * attempts, errors and total keystroke latency. Letters are case-insensitive; other characters
+ * are not tracked. Stored as flat primitive arrays indexed by {@link #index(char, char)}.
+ */
+public class BigramStats {
+    public static final int LETTERS = 26;
+    public static final int SIZE = LETTERS * LETTERS;
+
+    // Keystrokes slower than this are pauses, not typing speed
+    private static final long MAX_LATENCY_MS = 2000;
+    // Smoothing so rarely seen bigrams stay close to the user's overall rates
+    private static final double PRIOR_WEIGHT = 5.0;
+
+    private final int[] attempts = new int[SIZE];
+    private final int[] errors = new int[SIZE];
+    private final long[] latencyMs = new long[SIZE];
+    private final int[] timedAttempts = new int[SIZE];
+
+    public BigramStats() {}
+
+    public BigramStats(BigramStats other) {
+        merge(other);
+    }
+
+    /**
+     * @return The bigram's index, or -1 if either character is not an ASCII letter
+     */
+    public static int index(char previous, char current) {
+        int a = Character.toLowerCase(previous) - 'a';
+        int b = Character.toLowerCase(current) - 'a';
+        if (a < 0 || a >= LETTERS || b < 0 || b >= LETTERS) return -1;
+        return a * LETTERS + b;
+    }
+
+    public static String bigram(int index) {
+        return new String(new char[] {(char) ('a' + index / LETTERS), (char) ('a' + index % LETTERS)});
+    }
+
+    /**
+     * Records one keystroke.
+     * @param previous The expected previous character
+     * @param expected The expected character
+     * @param correct Whether the typed character matched
+     * @param latency Milliseconds since the previous keystroke, or a negative value if unknown
+     */
+    public void record(char previous, char expected, boolean correct, long latency) {
+        int i = index(previous, expected);
+        if (i < 0) return;
+        attempts[i]++;
+        if (!correct) errors[i]++;
+        if (latency >= 0 && latency <= MAX_LATENCY_MS) {
+            latencyMs[i] += latency;
+            timedAttempts[i]++;
+        }
+    }
+
+    /**
+     * Sets stored totals for one bigram, e.g. when loading from the database.
+     */
+    public void set(int index, int attempts, int errors, long latencyMs, int timedAttempts) {
+        this.attempts[index] = attempts;
+        this.errors[index] = errors;
+        this.latencyMs[index] = latencyMs;
+        this.timedAttempts[index] = timedAttempts;
+    }
+
+    public void merge(BigramStats other) {
+        for (int i = 0; i < SIZE; i++) {
+            attempts[i] += other.attempts[i];
+            errors[i] += other.errors[i];
+            latencyMs[i] += other.latencyMs[i];
+            timedAttempts[i] += other.timedAttempts[i];
+        }
+    }
+
+    public int getAttempts(int index) { return attempts[index]; }
+    public int getErrors(int index) { return errors[index]; }
+    public long getLatencyMs(int index) { return latencyMs[index]; }
+    public int getTimedAttempts(int index) { return timedAttempts[index]; }
+
+    public boolean isEmpty() {
+        for (int count : attempts) {
+            if (count > 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Rates how weak the user is on each bigram relative to their own average: the smoothed error
+     * rate and the smoothed mean latency are each divided by the user's overall value and added.
+     * An average bigram, or one never typed, scores 2.
+     * @return The weakness of every bigram, indexed by {@link #index(char, char)}
+     */
+    public double[] weakness() {
+        long totalAttempts = 0;
+        long totalErrors = 0;
+        long totalLatency = 0;
+        long totalTimed = 0;
+        for (int i = 0; i < SIZE; i++) {
+            totalAttempts += attempts[i];
+            totalErrors += errors[i];
+            totalLatency += latencyMs[i];
+            totalTimed += timedAttempts[i];
+        }
+        // Fall back to neutral rates before there is any history
+        double errorRate = (totalErrors + 1.0) / (totalAttempts + 10.0);
+        double latency = totalTimed == 0 ? 200.0 : (double) totalLatency / totalTimed;
+
+        double[] weakness = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            double bigramErrorRate = (errors[i] + PRIOR_WEIGHT * errorRate) / (attempts[i] + PRIOR_WEIGHT);
+            double bigramLatency = (latencyMs[i] + PRIOR_WEIGHT * latency) / (timedAttempts[i] + PRIOR_WEIGHT);
+            weakness[i] = bigramErrorRate / errorRate + bigramLatency / latency;
+        }
+        return weakness;
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * A passage split into chunks of at most {@link #CHUNK_SIZE} characters, each ending after
+ * whitespace where possible so chunks start on word boundaries. For each chunk the offset of its
+ * first character, the non-whitespace characters before it and the words starting before it are
+ * precomputed, so finding the chunk, word or typing progress at a position is a binary search
+ * plus a scan of at most one chunk, however long the passage. A display can show just the chunks
+ * around the cursor instead of laying out the whole text.
+ * <p>
+ * The chunks index the original string rather than copying it. Immutable and safe to share
+ * between threads.
+ */
+public class ChunkedText {
+    public static final int CHUNK_SIZE = 512;
+
+    private final String text;
+    // One entry per chunk, plus a final entry for the end of the text
+    private final int[] chunkStarts;
+    private final int[] charactersBefore;
+    private final int[] wordsBefore;
+
+    private ChunkedText(String text, int[] chunkStarts, int[] charactersBefore, int[] wordsBefore) {
+        this.text = text;
+        this.chunkStarts = chunkStarts;
+        this.charactersBefore = charactersBefore;
+        this.wordsBefore = wordsBefore;
+    }
+
+    /**
+     * Chunks a text, reading each character at most twice.
+     * @param text The text
+     * @return The chunked text
+     */
+    public static ChunkedText of(String text) {
+        int length = text.length();
+        // A chunk is only cut short by backing up to whitespace, so most are nearly full
+        int capacity = length / (CHUNK_SIZE / 2) + 2;
+        int[] starts = new int[capacity];
+        int[] characters = new int[capacity];
+        int[] words = new int[capacity];
+        int chunks = 0;
+        int characterCount = 0;
+        int wordCount = 0;
+
+        int start = 0;
+        // An empty text still gets one (empty) chunk, so every offset has a chunk
+        do {
+            int end = Math.min(length, start + CHUNK_SIZE);
+            if (end < length) {
+                // End just after the chunk's last whitespace; a chunk without any is cut mid-word
+                int breakAt = end;
+                while (breakAt > start && !Character.isWhitespace(text.charAt(breakAt - 1))) breakAt--;
+                if (breakAt > start) end = breakAt;
+            }
+            if (chunks == starts.length - 1) {
+                starts = Arrays.copyOf(starts, chunks * 2);
+                characters = Arrays.copyOf(characters, chunks * 2);
+                words = Arrays.copyOf(words, chunks * 2);
+            }
+            starts[chunks] = start;
+            characters[chunks] = characterCount;
+            words[chunks] = wordCount;
+            chunks++;
+            for (int i = start; i < end; i++) {
+                if (!Character.isWhitespace(text.charAt(i))) {
+                    characterCount++;
+                    if (i == 0 || Character.isWhitespace(text.charAt(i - 1))) wordCount++;
+                }
+            }
+            start = end;
+        } while (start < length);
+        starts[chunks] = length;
+        characters[chunks] = characterCount;
+        words[chunks] = wordCount;
+        return new ChunkedText(text,
+            Arrays.copyOf(starts, chunks + 1),
+            Arrays.copyOf(characters, chunks + 1),
+            Arrays.copyOf(words, chunks + 1));
+    }
+
+    public String getText() { return text; }
+
+    public int length() { return text.length(); }
+
+    public char charAt(int offset) { return text.charAt(offset); }
+
+    public String substring(int from, int to) { return text.substring(from, to); }
+
+    /**
+     * @return The number of non-whitespace characters
+     */
+    public int getCharacterCount() { return charactersBefore[getChunkCount()]; }
+
+    public int getWordCount() { return wordsBefore[getChunkCount()]; }
+
+    public int getChunkCount() { return chunkStarts.length - 1; }
+
+    /**
+     * @return Offset of a chunk's first character
+     */
+    public int getChunkStart(int chunk) { return chunkStarts[chunk]; }
+
+    /**
+     * @return Offset just past a chunk's last character
+     */
+    public int getChunkEnd(int chunk) { return chunkStarts[chunk + 1]; }
+
+    /**
+     * Finds the chunk holding an offset.
+     * @param offset An offset from 0 to {@link #length()}; the end of the text is in the last chunk
+     * @return The chunk index
+     */
+    public int chunkAt(int offset) {
+        if (offset < 0 || offset > text.length()) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " outside text of length " + text.length());
+        }
+        return lastAtOrBelow(chunkStarts, offset);
+    }
+
+    /**
+     * @param offset An offset from 0 to {@link #length()}
+     * @return The number of non-whitespace characters before the offset, i.e. typing progress
+     */
+    public int charactersBefore(int offset) {
+        int chunk = chunkAt(offset);
+        int count = charactersBefore[chunk];
+        for (int i = chunkStarts[chunk]; i < offset; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the word containing or following an offset.
+     * @param offset An offset from 0 to {@link #length()}
+     * @return The word index, or {@link #getWordCount()} if the offset is past the last word
+     */
+    public int wordAt(int offset) {
+        int chunk = chunkAt(offset);
+        // Words starting at or before the offset
+        int started = wordsBefore[chunk];
+        for (int i = chunkStarts[chunk]; i <= offset && i < text.length(); i++) {
+            if (isWordStart(i)) started++;
+        }
+        boolean inWord = offset < text.length() && !Character.isWhitespace(text.charAt(offset));
+        return inWord ? started - 1 : started;
+    }
+
+    /**
+     * @param word A word index from 0 to {@link #getWordCount()} - 1
+     * @return Offset of the word's first character
+     */
+    public int wordStart(int word) {
+        if (word < 0 || word >= getWordCount()) {
+            throw new IndexOutOfBoundsException("No word " + word + " in " + getWordCount());
+        }
+        // The chunk the word starts in: the last one with no more than that many words before it
+        int chunk = lastAtOrBelow(wordsBefore, word);
+        int remaining = word - wordsBefore[chunk];
+        for (int i = chunkStarts[chunk]; ; i++) {
+            if (isWordStart(i) && remaining-- == 0) return i;
+        }
+    }
+
+    /**
+     * @param word A word index from 0 to {@link #getWordCount()} - 1
+     * @return Offset just past the word's last character
+     */
+    public int wordEnd(int word) {
+        int i = wordStart(word);
+        while (i < text.length() && !Character.isWhitespace(text.charAt(i))) i++;
+        return i;
+    }
+
+    private boolean isWordStart(int i) {
+        return !Character.isWhitespace(text.charAt(i)) && (i == 0 || Character.isWhitespace(text.charAt(i - 1)));
+    }
+
+    /**
+     * @return The last chunk whose entry in a non-decreasing per-chunk array is at most the value
+     */
+    private int lastAtOrBelow(int[] values, int value) {
+        int low = 0;
+        int high = getChunkCount() - 1;
+        int found = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= value) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
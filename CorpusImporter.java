@@ -0,0 +1,265 @@
+package org.example.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Imports a tab-separated passage file into a {@link CorpusStore}, rejecting or clustering
+ * near-duplicate passages with MinHash signatures and an LSH index.
+ * <p>
+ * The input is streamed in batches: a pool of worker threads parses lines and computes
+ * signatures (the expensive part) while the calling thread looks up and indexes the finished
+ * batches in input order and writes the passages it keeps. At most two batches per worker are in
+ * flight, so memory holds a bounded window of text plus the index of kept passages, however
+ * large the input. Output does not depend on the number of threads.
+ */
+public class CorpusImporter {
+    private static final Logger LOGGER = Logger.getLogger(CorpusImporter.class.getName());
+
+    public static final int DEFAULT_BANDS = 30;
+    public static final int DEFAULT_ROWS = 2;
+    public static final double DEFAULT_THRESHOLD = 0.4;
+    private static final long MINHASH_SEED = 0x5459504553L;
+    private static final int BATCH_SIZE = 2048;
+
+    private final MinHash minHash;
+    private final NearDuplicateIndex index;
+    private final int threads;
+
+    /**
+     * What happens to a passage that nearly duplicates one already imported.
+     */
+    public enum Mode {
+        /** Leave it out of the corpus. */
+        REJECT,
+        /** Keep it, and report which earlier passage it clusters with. */
+        CLUSTER
+    }
+
+    /**
+     * Counts from one import.
+     */
+    public static class Result {
+        private long lines;
+        private long imported;
+        private long duplicates;
+        private long malformed;
+
+        public long getLines() { return lines; }
+        public long getImported() { return imported; }
+        public long getDuplicates() { return duplicates; }
+        public long getMalformed() { return malformed; }
+
+        @Override
+        public String toString() {
+            return String.format("%d lines: %d imported, %d near-duplicates, %d malformed",
+                lines, imported, duplicates, malformed);
+        }
+    }
+
+    /**
+     * One line parsed and signed by a worker.
+     */
+    private static class Parsed {
+        final long lineNumber;
+        final String difficulty;
+        final int level;
+        final String passage;
+        final int[] signature;
+
+        Parsed(long lineNumber, String difficulty, int level, String passage, int[] signature) {
+            this.lineNumber = lineNumber;
+            this.difficulty = difficulty;
+            this.level = level;
+            this.passage = passage;
+            this.signature = signature;
+        }
+    }
+
+    /**
+     * @param bands LSH bands
+     * @param rows Signature values per band
+     * @param threshold Estimated Jaccard similarity at or above which passages are near-duplicates
+     * @param threads Worker threads computing signatures
+     */
+    public CorpusImporter(int bands, int rows, double threshold, int threads) {
+        this.minHash = new MinHash(bands * rows, MINHASH_SEED);
+        this.index = new NearDuplicateIndex(bands, rows, threshold);
+        this.threads = Math.max(1, threads);
+    }
+
+    public CorpusImporter(double threshold) {
+        this(DEFAULT_BANDS, DEFAULT_ROWS, threshold, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Imports {@code difficulty<TAB>level<TAB>passage} lines.
+     * @param reader The input
+     * @param writer Receives the passages that are kept
+     * @param mode What to do with near-duplicates
+     * @param clusters In {@link Mode#CLUSTER} mode, receives a {@code line<TAB>clusterLine} row for each
+     *                 near-duplicate naming the first line of its cluster; may be null
+     * @return Counts of what was imported
+     * @throws IOException if reading or writing fails
+     */
+    public Result importPassages(BufferedReader reader, CorpusStore.Writer writer, Mode mode,
+                                 BufferedWriter clusters) throws IOException {
+        Result result = new Result();
+        // Input line of each indexed passage, so clusters can be reported by line
+        long[] indexedLines = new long[1024];
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "corpus-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<List<Parsed>>> inFlight = new ArrayDeque<>();
+        try {
+            long lineNumber = 0;
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            long batchStart = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                batch.add(line);
+                if (batch.size() == BATCH_SIZE) {
+                    inFlight.add(submit(workers, batch, batchStart));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    batchStart = lineNumber + 1;
+                    // Bound the window of text held in memory
+                    if (inFlight.size() >= threads * 2) {
+                        indexedLines = consume(inFlight.poll(), writer, mode, clusters, result, indexedLines);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                inFlight.add(submit(workers, batch, batchStart));
+            }
+            while (!inFlight.isEmpty()) {
+                indexedLines = consume(inFlight.poll(), writer, mode, clusters, result, indexedLines);
+            }
+            result.lines = lineNumber;
+        } finally {
+            workers.shutdownNow();
+        }
+        return result;
+    }
+
+    private Future<List<Parsed>> submit(ExecutorService workers, List<String> lines, long firstLine) {
+        return workers.submit(() -> {
+            List<Parsed> parsed = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                parsed.add(parse(lines.get(i), firstLine + i));
+            }
+            return parsed;
+        });
+    }
+
+    /**
+     * @return The parsed line, null for a blank line, or one with a null passage if malformed
+     */
+    private Parsed parse(String line, long lineNumber) {
+        if (line.isBlank()) return null;
+        String[] parts = line.split("\t", 3);
+        // Nine digits always fit an int, so parseInt cannot throw and abort the import
+        if (parts.length != 3 || !parts[1].trim().matches("\\d{1,9}")) {
+            return new Parsed(lineNumber, null, 0, null, null);
+        }
+        String passage = parts[2];
+        return new Parsed(lineNumber, parts[0].trim(), Integer.parseInt(parts[1].trim()), passage,
+            minHash.signature(passage));
+    }
+
+    private long[] consume(Future<List<Parsed>> future, CorpusStore.Writer writer, Mode mode,
+                           BufferedWriter clusters, Result result, long[] indexedLines) throws IOException {
+        List<Parsed> batch;
+        try {
+            batch = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to process passages", e.getCause());
+        }
+
+        for (Parsed parsed : batch) {
+            if (parsed == null) continue;
+            if (parsed.passage == null) {
+                result.malformed++;
+                System.err.println("Skipping malformed line " + parsed.lineNumber);
+                continue;
+            }
+            if (parsed.signature != null) {
+                int duplicateOf = index.findDuplicate(parsed.signature);
+                if (duplicateOf >= 0) {
+                    result.duplicates++;
+                    if (mode == Mode.REJECT) continue;
+                    if (clusters != null) {
+                        clusters.write(parsed.lineNumber + "\t" + indexedLines[duplicateOf]);
+                        clusters.newLine();
+                    }
+                } else {
+                    int id = index.add(parsed.signature);
+                    if (id == indexedLines.length) {
+                        indexedLines = Arrays.copyOf(indexedLines, id * 2);
+                    }
+                    indexedLines[id] = parsed.lineNumber;
+                }
+            }
+            writer.add(parsed.difficulty, parsed.level, parsed.passage);
+            result.imported++;
+        }
+        return indexedLines;
+    }
+
+    /**
+     * Builds a corpus from a tab-separated file, leaving out near-duplicates, or with
+     * {@code --cluster} keeping them and writing their clusters to a file.
+     *
+     * Usage: CorpusImporter input.tsv outputBase [--threshold 0.4] [--cluster clusters.tsv]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CorpusImporter <input.tsv> <outputBase> [--threshold 0.4] [--cluster clusters.tsv]");
+            System.exit(1);
+        }
+        double threshold = DEFAULT_THRESHOLD;
+        Path clustersPath = null;
+        for (int i = 2; i < args.length; i++) {
+            if ("--threshold".equals(args[i]) && i + 1 < args.length) {
+                threshold = Double.parseDouble(args[++i]);
+            } else if ("--cluster".equals(args[i]) && i + 1 < args.length) {
+                clustersPath = Path.of(args[++i]);
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                System.exit(1);
+            }
+        }
+
+        long start = System.nanoTime();
+        CorpusImporter importer = new CorpusImporter(threshold);
+        Result result;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8);
+             CorpusStore.Writer writer = new CorpusStore.Writer(Path.of(args[1]));
+             BufferedWriter clusters = clustersPath != null
+                 ? Files.newBufferedWriter(clustersPath, StandardCharsets.UTF_8) : null) {
+            result = importer.importPassages(reader, writer,
+                clustersPath != null ? Mode.CLUSTER : Mode.REJECT, clusters);
+        }
+        LOGGER.info(String.format("Imported %s in %.1f s", result, (System.nanoTime() - start) / 1e9));
+        System.out.println(result);
+    }
+}
@@ -0,0 +1,349 @@
+package org.example.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Read-only passage corpus held in two memory-mapped files:
+ * <ul>
+ *   <li>{@code <base>.txt} - UTF-8 passages, one after another (a newline follows each for readability)</li>
+ *   <li>{@code <base>.idx} - a directory of (difficulty, level) buckets followed by a byte offset and
+ *       length per passage, with each bucket's passages stored contiguously</li>
+ * </ul>
+ * Opening reads only the bucket directory, so startup cost does not grow with the corpus. Passages
+ * are paged in by the OS on first access and never copied into the heap until decoded.
+ * Instances are immutable and safe to share between threads.
+ */
+public class CorpusStore {
+    private static final Logger LOGGER = Logger.getLogger(CorpusStore.class.getName());
+    private static final int MAGIC = 0x54504331; // "TPC1"
+    private static final int VERSION = 1;
+    private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final MappedByteBuffer text;
+    private final MappedByteBuffer index;
+    private final Map<String, Bucket> buckets;
+    private final int entriesStart;
+    private final int passageCount;
+
+    /**
+     * A contiguous run of index entries for one difficulty and level.
+     */
+    private static class Bucket {
+        final int first;
+        final int count;
+
+        Bucket(int first, int count) {
+            this.first = first;
+            this.count = count;
+        }
+    }
+
+    private CorpusStore(MappedByteBuffer text, MappedByteBuffer index, Map<String, Bucket> buckets,
+                        int entriesStart, int passageCount) {
+        this.text = text;
+        this.index = index;
+        this.buckets = buckets;
+        this.entriesStart = entriesStart;
+        this.passageCount = passageCount;
+    }
+
+    /**
+     * Maps a corpus written by {@link Writer}.
+     * @param base The corpus path without the .txt/.idx extension
+     * @return The opened corpus
+     * @throws IOException if the files cannot be read, are not a corpus, or exceed 2 GB each
+     */
+    public static CorpusStore open(Path base) throws IOException {
+        MappedByteBuffer index = map(indexPath(base));
+        MappedByteBuffer text = map(textPath(base));
+
+        if (index.remaining() < 24 || index.getInt(0) != MAGIC) {
+            throw new IOException("Not a passage corpus index: " + indexPath(base));
+        }
+        if (index.getInt(4) != VERSION) {
+            throw new IOException("Unsupported corpus version " + index.getInt(4) + ": " + indexPath(base));
+        }
+        int bucketCount = index.getInt(8);
+        int entryCount = index.getInt(12);
+        long textSize = index.getLong(16);
+        if (textSize != text.capacity()) {
+            throw new IOException("Corpus text does not match its index: " + textPath(base));
+        }
+
+        // Only the bucket directory is read here; entries are looked up on demand
+        Map<String, Bucket> buckets = new HashMap<>();
+        int position = 24;
+        for (int i = 0; i < bucketCount; i++) {
+            int nameLength = index.getShort(position);
+            byte[] name = new byte[nameLength];
+            index.get(position + 2, name);
+            position += 2 + nameLength;
+            int level = index.getInt(position);
+            int first = index.getInt(position + 4);
+            int count = index.getInt(position + 8);
+            position += 12;
+            buckets.put(key(new String(name, StandardCharsets.UTF_8), level), new Bucket(first, count));
+        }
+        if ((long) position + (long) entryCount * ENTRY_BYTES > index.capacity()) {
+            throw new IOException("Truncated corpus index: " + indexPath(base));
+        }
+
+        LOGGER.info("Opened passage corpus " + base + " (" + entryCount + " passages, "
+            + bucketCount + " difficulty/level buckets, " + textSize / 1024 + " KB)");
+        return new CorpusStore(text, index, Collections.unmodifiableMap(buckets), position, entryCount);
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Corpus files larger than 2 GB are not supported: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    static Path textPath(Path base) {
+        return base.resolveSibling(base.getFileName() + ".txt");
+    }
+
+    static Path indexPath(Path base) {
+        return base.resolveSibling(base.getFileName() + ".idx");
+    }
+
+    /**
+     * @return Where {@link PassageAnalyzer} saves the corpus's score index
+     */
+    public static Path scoresPath(Path base) {
+        return base.resolveSibling(base.getFileName() + ".scores");
+    }
+
+    /**
+     * @return Where {@link NgramIndex} saves the corpus's n-gram index
+     */
+    public static Path ngramsPath(Path base) {
+        return base.resolveSibling(base.getFileName() + ".ngrams");
+    }
+
+    private static String key(String difficulty, int level) {
+        return difficulty.toUpperCase() + ":" + level;
+    }
+
+    public int getPassageCount() {
+        return passageCount;
+    }
+
+    /**
+     * @return The number of passages for a difficulty and level
+     */
+    public int getPassageCount(String difficulty, int level) {
+        Bucket bucket = buckets.get(key(difficulty, level));
+        return bucket != null ? bucket.count : 0;
+    }
+
+    /**
+     * Gets a passage's UTF-8 bytes as a read-only view of the mapped file, without copying.
+     * @param difficulty The difficulty
+     * @param level The level
+     * @param i The passage's position within its difficulty and level
+     * @return A buffer positioned at the start of the passage
+     * @throws IndexOutOfBoundsException if there is no such passage
+     */
+    public ByteBuffer getPassageBytes(String difficulty, int level, int i) {
+        Bucket bucket = buckets.get(key(difficulty, level));
+        if (bucket == null || i < 0 || i >= bucket.count) {
+            throw new IndexOutOfBoundsException("No passage " + i + " for " + key(difficulty, level));
+        }
+        return getPassageBytes(bucket.first + i);
+    }
+
+    /**
+     * Gets a passage by its position in the whole corpus, without copying.
+     * Passage IDs run from 0 to {@link #getPassageCount()} - 1, grouped by difficulty and level.
+     * @param id The passage ID
+     * @return A read-only buffer positioned at the start of the passage
+     */
+    public ByteBuffer getPassageBytes(int id) {
+        if (id < 0 || id >= passageCount) {
+            throw new IndexOutOfBoundsException("No passage " + id);
+        }
+        int entry = entriesStart + id * ENTRY_BYTES;
+        long offset = index.getLong(entry);
+        int length = index.getInt(entry + Long.BYTES);
+        // Absolute slice: the shared buffer's position is never touched, so lookups are thread-safe
+        return text.slice((int) offset, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Decodes one passage. Only that passage's bytes are read.
+     */
+    public String getPassage(String difficulty, int level, int i) {
+        return StandardCharsets.UTF_8.decode(getPassageBytes(difficulty, level, i)).toString();
+    }
+
+    /**
+     * Decodes one passage by its position in the whole corpus.
+     */
+    public String getPassage(int id) {
+        return StandardCharsets.UTF_8.decode(getPassageBytes(id)).toString();
+    }
+
+    /**
+     * Decodes a random passage for a difficulty and level.
+     * @return The passage, or null if the corpus has none for that difficulty and level
+     */
+    public String getRandomPassage(String difficulty, int level, Random random) {
+        int count = getPassageCount(difficulty, level);
+        return count == 0 ? null : getPassage(difficulty, level, random.nextInt(count));
+    }
+
+    /**
+     * Streams passages into a new corpus. Passages may be added in any order; the index is grouped
+     * by difficulty and level when the writer is closed. Memory use is 16 bytes per passage plus
+     * the output buffer, independent of passage length.
+     */
+    public static class Writer implements Closeable {
+        private final Path base;
+        private final DataOutputStream out;
+        private long position;
+        private long[] offsets = new long[1024];
+        private int[] lengths = new int[1024];
+        private int[] keys = new int[1024];
+        private final Map<String, Integer> keyIds = new HashMap<>();
+        private final Map<Integer, String> keyNames = new HashMap<>();
+        private int count;
+
+        /**
+         * @param base The corpus path without the .txt/.idx extension; existing files are replaced
+         */
+        public Writer(Path base) throws IOException {
+            this.base = base;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(textPath(base)), 1 << 16));
+        }
+
+        /**
+         * Appends a passage.
+         * @param difficulty The difficulty (stored upper-case)
+         * @param level The level within the difficulty
+         * @param passage The passage text
+         */
+        public void add(String difficulty, int level, String passage) throws IOException {
+            byte[] bytes = passage.getBytes(StandardCharsets.UTF_8);
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            String key = key(difficulty, level);
+            Integer keyId = keyIds.get(key);
+            if (keyId == null) {
+                keyId = keyIds.size();
+                keyIds.put(key, keyId);
+                keyNames.put(keyId, key);
+            }
+            offsets[count] = position;
+            lengths[count] = bytes.length;
+            keys[count] = keyId;
+            count++;
+
+            out.write(bytes);
+            out.write('\n');
+            position += bytes.length + 1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+
+            // Group entries by key (counting sort, stable) so each bucket is one contiguous run
+            TreeMap<String, Integer> sortedKeys = new TreeMap<>(keyIds);
+            int[] bucketCounts = new int[keyIds.size()];
+            for (int i = 0; i < count; i++) {
+                bucketCounts[keys[i]]++;
+            }
+            int[] bucketStarts = new int[keyIds.size()];
+            int next = 0;
+            for (int keyId : sortedKeys.values()) {
+                bucketStarts[keyId] = next;
+                next += bucketCounts[keyId];
+            }
+            int[] order = new int[count];
+            int[] fill = bucketStarts.clone();
+            for (int i = 0; i < count; i++) {
+                order[fill[keys[i]]++] = i;
+            }
+
+            try (OutputStream file = Files.newOutputStream(indexPath(base));
+                 DataOutputStream index = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                index.writeInt(MAGIC);
+                index.writeInt(VERSION);
+                index.writeInt(keyIds.size());
+                index.writeInt(count);
+                index.writeLong(position);
+                for (int keyId : sortedKeys.values()) {
+                    String key = keyNames.get(keyId);
+                    int separator = key.lastIndexOf(':');
+                    byte[] name = key.substring(0, separator).getBytes(StandardCharsets.UTF_8);
+                    index.writeShort(name.length);
+                    index.write(name);
+                    index.writeInt(Integer.parseInt(key.substring(separator + 1)));
+                    index.writeInt(bucketStarts[keyId]);
+                    index.writeInt(bucketCounts[keyId]);
+                }
+                for (int i = 0; i < count; i++) {
+                    index.writeLong(offsets[order[i]]);
+                    index.writeInt(lengths[order[i]]);
+                }
+            }
+            LOGGER.info("Wrote passage corpus " + base + " (" + count + " passages)");
+        }
+    }
+
+    /**
+     * Builds a corpus from a tab-separated file of {@code difficulty<TAB>level<TAB>passage} lines,
+     * streaming so files larger than memory can be imported. {@link CorpusImporter} does the same
+     * while leaving out near-duplicate passages.
+     *
+     * Usage: CorpusStore input.tsv outputBase
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CorpusStore <input.tsv> <outputBase>");
+            System.exit(1);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8);
+             Writer writer = new Writer(Path.of(args[1]))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3 || !parts[1].trim().matches("\\d+")) {
+                    System.err.println("Skipping malformed line " + lineNumber);
+                    continue;
+                }
+                writer.add(parts[0].trim(), Integer.parseInt(parts[1].trim()), parts[2]);
+            }
+        }
+    }
+}
@@ -1,15 +1,44 @@
 package org.example.view.panels;
 
+import org.example.database.DatabaseManager;
+import org.example.model.DashboardSummary;
+import org.example.model.User;
+import org.example.service.EventBus;
+import org.example.service.SessionSavedEvent;
 import org.example.view.MainFrame;
+import org.example.view.ManagedView;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
-public class DashboardPanel extends JPanel {
+public class DashboardPanel extends JPanel implements ManagedView {
+    private static final Logger LOGGER = Logger.getLogger(DashboardPanel.class.getName());
     private final MainFrame parent;
+    private JLabel welcomeLabel;
+    private JLabel testsTodayValue;
+    private JLabel streakValue;
+    private JLabel rollingWpmValue;
+    private JLabel bestWpmValue;
+    private SwingWorker<DashboardSummary, Void> summaryWorker;
+    // User whose figures the cards show, and whether they are out of date
+    private int summaryUserId = -1;
+    private boolean summaryStale = true;
+    private final EventBus.Subscription sessionSubscription;
+    
     public DashboardPanel(MainFrame parent) {
         this.parent = parent;
         initializeUI();
+        
+        // A saved session changes every card; reload now if visible, otherwise on next show
+        sessionSubscription = EventBus.getInstance().subscribeOnEdt(SessionSavedEvent.class, event -> {
+            if (event.getUserId() != summaryUserId) return;
+            summaryStale = true;
+            if (isShowing()) {
+                loadSummary();
+            }
+        });
     }
     
     private void initializeUI() {
@@ -18,18 +47,12 @@ public class DashboardPanel extends JPanel {
         
         // Welcome panel
         JPanel welcomePanel = new JPanel(new BorderLayout());
-        String welcomeMessage = "Welcome";
-        
-        // Check if user is logged in
-        if (parent.getCurrentUser() != null) {
-            welcomeMessage += ", " + parent.getCurrentUser().getUsername();
-        }
-        welcomeMessage += "!";
-        
-        JLabel welcomeLabel = new JLabel(welcomeMessage);
+        welcomeLabel = new JLabel();
+        updateWelcomeMessage();
         welcomeLabel.setFont(new Font(welcomeLabel.getFont().getName(), Font.BOLD, 24));
         welcomeLabel.setHorizontalAlignment(SwingConstants.CENTER);
         welcomePanel.add(welcomeLabel, BorderLayout.CENTER);
+        welcomePanel.add(createSummaryCards(), BorderLayout.SOUTH);
         
         // Buttons panel
         JPanel buttonPanel = new JPanel(new GridLayout(4, 1, 10, 15));
@@ -56,6 +79,127 @@ public class DashboardPanel extends JPanel {
         add(buttonPanel, BorderLayout.CENTER);
     }
     
+    @Override
+    public void onStart() {
+        // The panel is reused across logins, so refresh the greeting each time
+        updateWelcomeMessage();
+        loadSummary();
+    }
+    
+    @Override
+    public void onStop() {
+        if (summaryWorker != null && !summaryWorker.isDone()) {
+            summaryWorker.cancel(false);
+            summaryStale = true;
+        }
+    }
+    
+    @Override
+    public void onDispose() {
+        sessionSubscription.unsubscribe();
+    }
+    
+    private JPanel createSummaryCards() {
+        JPanel cardsPanel = new JPanel(new GridLayout(1, 4, 10, 0));
+        cardsPanel.setBorder(BorderFactory.createEmptyBorder(20, 0, 0, 0));
+        
+        testsTodayValue = new JLabel();
+        streakValue = new JLabel();
+        rollingWpmValue = new JLabel();
+        bestWpmValue = new JLabel();
+        
+        cardsPanel.add(createCard("Tests Today", testsTodayValue));
+        cardsPanel.add(createCard("Current Streak", streakValue));
+        cardsPanel.add(createCard("Last " + DashboardSummary.ROLLING_WINDOW + " WPM", rollingWpmValue));
+        cardsPanel.add(createCard("Best WPM", bestWpmValue));
+        clearSummary();
+        return cardsPanel;
+    }
+    
+    private JPanel createCard(String title, JLabel valueLabel) {
+        JPanel card = new JPanel(new BorderLayout(0, 5));
+        card.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(Color.LIGHT_GRAY),
+            BorderFactory.createEmptyBorder(8, 8, 8, 8)));
+        
+        JLabel titleLabel = new JLabel(title, SwingConstants.CENTER);
+        valueLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        valueLabel.setFont(new Font(valueLabel.getFont().getName(), Font.BOLD, 20));
+        
+        card.add(titleLabel, BorderLayout.NORTH);
+        card.add(valueLabel, BorderLayout.CENTER);
+        return card;
+    }
+    
+    /**
+     * Loads the summary cards in the background. The dashboard is shown straight away with the
+     * previous figures (or placeholders for a new user) and updated when the query returns.
+     */
+    private void loadSummary() {
+        User user = parent.getCurrentUser();
+        if (user == null) {
+            summaryUserId = -1;
+            clearSummary();
+            return;
+        }
+        if (user.getUserId() != summaryUserId) {
+            summaryUserId = user.getUserId();
+            summaryStale = true;
+            clearSummary();
+        }
+        if (!summaryStale) return;
+        
+        if (summaryWorker != null && !summaryWorker.isDone()) {
+            summaryWorker.cancel(false);
+        }
+        summaryStale = false;
+        int userId = user.getUserId();
+        summaryWorker = new SwingWorker<>() {
+            @Override
+            protected DashboardSummary doInBackground() throws Exception {
+                return DatabaseManager.getInstance().getDashboardSummary(userId);
+            }
+            
+            @Override
+            protected void done() {
+                if (isCancelled() || userId != summaryUserId) return;
+                try {
+                    showSummary(get());
+                } catch (Exception e) {
+                    // The cards are informational; leave the placeholders and retry on next show
+                    LOGGER.log(Level.WARNING, "Failed to load dashboard summary", e);
+                    summaryStale = true;
+                }
+            }
+        };
+        summaryWorker.execute();
+    }
+    
+    private void showSummary(DashboardSummary summary) {
+        testsTodayValue.setText(String.valueOf(summary.getTestsToday()));
+        streakValue.setText(summary.getCurrentStreak() + (summary.getCurrentStreak() == 1 ? " day" : " days"));
+        rollingWpmValue.setText(summary.getTotalTests() == 0 ? "-" : String.format("%.1f", summary.getRollingWpm()));
+        bestWpmValue.setText(summary.getTotalTests() == 0 ? "-" : String.format("%.1f", summary.getBestWpm()));
+    }
+    
+    private void clearSummary() {
+        testsTodayValue.setText("-");
+        streakValue.setText("-");
+        rollingWpmValue.setText("-");
+        bestWpmValue.setText("-");
+    }
+    
+    private void updateWelcomeMessage() {
+        String welcomeMessage = "Welcome";
+        
+        // Check if user is logged in
+        if (parent.getCurrentUser() != null) {
+            welcomeMessage += ", " + parent.getCurrentUser().getUsername();
+        }
+        welcomeMessage += "!";
+        welcomeLabel.setText(welcomeMessage);
+    }
+    
     private JButton createMenuButton(String text) {
         JButton button = new JButton(text);
         button.setFont(new Font(button.getFont().getName(), Font.PLAIN, 16));
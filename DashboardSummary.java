@@ -0,0 +1,39 @@
+package org.example.model;
+
+/**
+ * Headline figures shown on the dashboard, computed by aggregate queries.
+ */
+public class DashboardSummary {
+    public static final int ROLLING_WINDOW = 10;
+
+    private int totalTests;
+    private int testsToday;
+    private int currentStreak; // consecutive days with at least one test, ending today or yesterday
+    private double rollingWpm; // average of the last ROLLING_WINDOW tests
+    private double bestWpm;
+
+    public DashboardSummary() {}
+
+    public DashboardSummary(int totalTests, int testsToday, int currentStreak, double rollingWpm, double bestWpm) {
+        this.totalTests = totalTests;
+        this.testsToday = testsToday;
+        this.currentStreak = currentStreak;
+        this.rollingWpm = rollingWpm;
+        this.bestWpm = bestWpm;
+    }
+
+    public int getTotalTests() { return totalTests; }
+    public void setTotalTests(int totalTests) { this.totalTests = totalTests; }
+
+    public int getTestsToday() { return testsToday; }
+    public void setTestsToday(int testsToday) { this.testsToday = testsToday; }
+
+    public int getCurrentStreak() { return currentStreak; }
+    public void setCurrentStreak(int currentStreak) { this.currentStreak = currentStreak; }
+
+    public double getRollingWpm() { return rollingWpm; }
+    public void setRollingWpm(double rollingWpm) { this.rollingWpm = rollingWpm; }
+
+    public double getBestWpm() { return bestWpm; }
+    public void setBestWpm(double bestWpm) { this.bestWpm = bestWpm; }
+}
@@ -16,7 +16,7 @@ public class DatabaseCleaner {
 
     /**
      * Clears all user data from the database.
-     * This will delete all users and their associated test sessions.
+     * This will delete all users and their associated test sessions, trend state and bigram statistics.
      */
     public static void clearAllUserData() {
         try (Connection conn = DatabaseManager.getInstance().getConnection();
@@ -28,6 +28,11 @@ public class DatabaseCleaner {
             // Clear test sessions first due to foreign key constraint
             stmt.execute("DELETE FROM TEST_SESSION");
             
+            // Clear per-user trend and bigram state; with foreign keys off their cascades cannot
+            // fire, and leftover rows would attach to the next user given the same userId
+            stmt.execute("DELETE FROM USER_TREND");
+            stmt.execute("DELETE FROM USER_BIGRAM_STATS");
+            
             // Clear users
             stmt.execute("DELETE FROM USER");
             
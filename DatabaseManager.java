@@ -1,10 +1,23 @@
 package org.example.database;
 
+import org.example.model.BigramStats;
+import org.example.model.DashboardSummary;
+import org.example.model.Passage;
+import org.example.model.SessionColumns;
 import org.example.model.TestSession;
+import org.example.model.TrendState;
 import org.example.model.User;
+import org.example.service.EventBus;
+import org.example.service.LoginThrottle;
+import org.example.service.PassageCatalogue;
+import org.example.service.PassageChangedEvent;
+import org.example.service.SessionSavedEvent;
+import org.example.service.StatisticsCache;
+import org.example.service.UserLoggedInEvent;
 import org.example.util.PasswordHasher;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,16 +31,27 @@ import java.util.logging.Logger;
 public class DatabaseManager {
     private static final Logger LOGGER = Logger.getLogger(DatabaseManager.class.getName());
     private static final String DB_URL = "jdbc:sqlite:typing_analyzer.db";
+    // Sessions typed from their level's passages; endless runs are generated text and kept out of per-level figures
+    static final String LEVEL_SESSIONS = "source IS NOT 'ENDLESS'";
     private static DatabaseManager instance;
-    private Connection connection;
+    private static volatile boolean driverLoaded;
     
-    static {
-        try {
-            LOGGER.info("Loading SQLite JDBC driver");
-            Class.forName("org.sqlite.JDBC");
-        } catch (ClassNotFoundException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load SQLite JDBC driver", e);
-            throw new RuntimeException("Failed to load SQLite JDBC driver", e);
+    /**
+     * Loads the SQLite JDBC driver. Safe to call from any thread and more than once,
+     * so startup can load it in the background before the first connection is needed.
+     */
+    public static void loadDriver() {
+        if (driverLoaded) return;
+        synchronized (DatabaseManager.class) {
+            if (driverLoaded) return;
+            try {
+                LOGGER.info("Loading SQLite JDBC driver");
+                Class.forName("org.sqlite.JDBC");
+                driverLoaded = true;
+            } catch (ClassNotFoundException e) {
+                LOGGER.log(Level.SEVERE, "Failed to load SQLite JDBC driver", e);
+                throw new RuntimeException("Failed to load SQLite JDBC driver", e);
+            }
         }
     }
 
@@ -41,6 +65,7 @@ public class DatabaseManager {
      */
     public static synchronized DatabaseManager getInstance() {
         if (instance == null) {
+            loadDriver();
             instance = new DatabaseManager();
             instance.initializeDatabase();
         }
@@ -63,33 +88,36 @@ public class DatabaseManager {
     }
 
     /**
-     * Gets a connection to the database, creating a new one if necessary.
-     * @return A database connection
+     * Opens a new connection to the database. Every caller closes its own connection, so a
+     * transaction never shares one with another thread's statements and closing it cannot cut
+     * off anyone else; SQLite in WAL mode lets the connections read concurrently.
+     * @return A database connection, to be closed by the caller
      * @throws SQLException if a database access error occurs
      */
     public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            LOGGER.info("Connecting to database...");
-            try {
-                connection = DriverManager.getConnection(DB_URL);
-                try (Statement stmt = connection.createStatement()) {
-                    // Enable foreign keys
-                    stmt.execute("PRAGMA foreign_keys = ON");
-                    // Enable WAL mode for better concurrency
-                    stmt.execute("PRAGMA journal_mode = WAL");
-                    // Set busy timeout
-                    stmt.execute("PRAGMA busy_timeout = 5000");
-                    // Enable case sensitive LIKE
-                    stmt.execute("PRAGMA case_sensitive_like = ON");
-                }
-                LOGGER.info("Successfully connected to database");
-            } catch (SQLException e) {
-                String error = "Failed to connect to database: " + e.getMessage();
-                LOGGER.log(Level.SEVERE, error, e);
-                throw new SQLException(error, e);
+        LOGGER.fine("Connecting to database...");
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection(DB_URL);
+            try (Statement stmt = connection.createStatement()) {
+                // Enable foreign keys
+                stmt.execute("PRAGMA foreign_keys = ON");
+                // Enable WAL mode for better concurrency
+                stmt.execute("PRAGMA journal_mode = WAL");
+                // Set busy timeout
+                stmt.execute("PRAGMA busy_timeout = 5000");
+                // Enable case sensitive LIKE
+                stmt.execute("PRAGMA case_sensitive_like = ON");
+            }
+            return connection;
+        } catch (SQLException e) {
+            if (connection != null) {
+                connection.close();
             }
+            String error = "Failed to connect to database: " + e.getMessage();
+            LOGGER.log(Level.SEVERE, error, e);
+            throw new SQLException(error, e);
         }
-        return connection;
     }
 
     /**
@@ -137,6 +165,8 @@ public class DatabaseManager {
                     accuracy REAL,
                     errors INTEGER,
                     testDate TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    seed INTEGER,
+                    source TEXT,
                     FOREIGN KEY(userId) REFERENCES USER(userId) ON DELETE CASCADE
                 )""");
             LOGGER.info("Created/Verified TEST_SESSION table");
@@ -153,6 +183,45 @@ public class DatabaseManager {
                 }
             }
             
+            // Sessions saved before passages were seeded have no seed
+            if (!columnExists(conn, "TEST_SESSION", "seed")) {
+                LOGGER.info("Adding 'seed' column to TEST_SESSION table");
+                try (Statement alterStmt = conn.createStatement()) {
+                    alterStmt.execute("ALTER TABLE TEST_SESSION ADD COLUMN seed INTEGER");
+                    LOGGER.info("Successfully added 'seed' column to TEST_SESSION table");
+                } catch (SQLException e) {
+                    LOGGER.log(Level.SEVERE, "Failed to add 'seed' column to TEST_SESSION table", e);
+                    throw e;
+                }
+            }
+
+            // The generator behind the seed: the same seed means different text per source
+            if (!columnExists(conn, "TEST_SESSION", "source")) {
+                LOGGER.info("Adding 'source' column to TEST_SESSION table");
+                try (Statement alterStmt = conn.createStatement()) {
+                    alterStmt.execute("ALTER TABLE TEST_SESSION ADD COLUMN source TEXT");
+                    LOGGER.info("Successfully added 'source' column to TEST_SESSION table");
+                } catch (SQLException e) {
+                    LOGGER.log(Level.SEVERE, "Failed to add 'source' column to TEST_SESSION table", e);
+                    throw e;
+                }
+            }
+
+            // Indexes backing history filters and sort columns; each leads with userId
+            // so a page only touches that user's rows
+            String[] historyIndexes = {
+                "CREATE INDEX IF NOT EXISTS idx_test_session_user_date ON TEST_SESSION(userId, testDate, sessionId)",
+                "CREATE INDEX IF NOT EXISTS idx_test_session_user_difficulty ON TEST_SESSION(userId, difficulty COLLATE NOCASE, level, testDate)",
+                "CREATE INDEX IF NOT EXISTS idx_test_session_user_wpm ON TEST_SESSION(userId, wpm)",
+                "CREATE INDEX IF NOT EXISTS idx_test_session_user_accuracy ON TEST_SESSION(userId, accuracy)",
+                "CREATE INDEX IF NOT EXISTS idx_test_session_user_time ON TEST_SESSION(userId, timeTaken)",
+                "CREATE INDEX IF NOT EXISTS idx_test_session_user_errors ON TEST_SESSION(userId, errors)"
+            };
+            for (String index : historyIndexes) {
+                stmt.execute(index);
+            }
+            LOGGER.info("Created/Verified TEST_SESSION indexes");
+
             // Create PASSAGES table
             stmt.execute("""
                 CREATE TABLE IF NOT EXISTS PASSAGES (
@@ -164,6 +233,32 @@ public class DatabaseManager {
                 )""");
             LOGGER.info("Created PASSAGES table");
             
+            // Create USER_TREND table holding incremental trend state per user
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS USER_TREND (
+                    userId INTEGER PRIMARY KEY,
+                    sessionCount INTEGER NOT NULL,
+                    emaWpm REAL NOT NULL,
+                    emaAccuracy REAL NOT NULL,
+                    recentWpm TEXT NOT NULL,
+                    FOREIGN KEY(userId) REFERENCES USER(userId) ON DELETE CASCADE
+                )""");
+            LOGGER.info("Created/Verified USER_TREND table");
+            
+            // Create USER_BIGRAM_STATS table holding per-user keystroke totals for each letter bigram
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS USER_BIGRAM_STATS (
+                    userId INTEGER NOT NULL,
+                    bigram TEXT NOT NULL,
+                    attempts INTEGER NOT NULL,
+                    errors INTEGER NOT NULL,
+                    latencyMs INTEGER NOT NULL,
+                    timedAttempts INTEGER NOT NULL,
+                    PRIMARY KEY(userId, bigram),
+                    FOREIGN KEY(userId) REFERENCES USER(userId) ON DELETE CASCADE
+                )""");
+            LOGGER.info("Created/Verified USER_BIGRAM_STATS table");
+            
             // Initialize default passages if they don't exist
             initializeDefaultPassages(conn);
             
@@ -264,11 +359,13 @@ public class DatabaseManager {
      * @param username The username
      * @param password The plain text password
      * @return The authenticated User object
-     * @throws SecurityException if authentication fails
+     * @throws SecurityException if authentication fails, the attempt is throttled or the user is locked out
      * @throws SQLException if a database error occurs
      */
     public User loginUser(String username, String password) throws SQLException {
         LOGGER.info("Attempting login for user: " + username);
+        LoginThrottle throttle = LoginThrottle.getInstance();
+        throttle.acquire(username);
         String sql = "SELECT * FROM USER WHERE username = ?";
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -282,6 +379,10 @@ public class DatabaseManager {
                     LOGGER.info("Password verification " + (passwordMatch ? "succeeded" : "failed"));
                     
                     if (passwordMatch) {
+                        throttle.recordSuccess(username);
+                        if (PasswordHasher.needsRehash(storedHash)) {
+                            upgradePasswordHash(rs.getInt("userId"), password);
+                        }
                         User user = new User(
                             rs.getInt("userId"),
                             rs.getString("username"),
@@ -289,11 +390,13 @@ public class DatabaseManager {
                             LocalDateTime.parse(rs.getString("created_at"))
                         );
                         LOGGER.info("Login successful for user: " + username);
+                        EventBus.getInstance().publish(new UserLoggedInEvent(user));
                         return user;
                     }
                 } else {
                     LOGGER.warning("No user found with username: " + username);
                 }
+                throttle.recordFailure(username);
                 throw new SecurityException("Invalid username or password");
             }
         } catch (SQLException e) {
@@ -303,6 +406,30 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Replaces a legacy or outdated password hash after a successful login. The rehash is queued
+     * on the hashing executor with its own connection, so the login returns after a single
+     * verification; a failed or rejected upgrade is logged and retried at the next login.
+     */
+    private void upgradePasswordHash(int userId, String password) {
+        PasswordHasher.submit(() -> {
+            String upgraded = PasswordHasher.hashPassword(password);
+            String sql = "UPDATE USER SET password_hash = ? WHERE userId = ?";
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, upgraded);
+                pstmt.setInt(2, userId);
+                pstmt.executeUpdate();
+            }
+            LOGGER.info("Upgraded password hash for user " + userId);
+            return null;
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOGGER.log(Level.WARNING, "Could not upgrade password hash for user " + userId, error);
+            }
+        });
+    }
+
     // Test Session Methods
 
     /**
@@ -313,22 +440,68 @@ public class DatabaseManager {
     public void saveTestSession(TestSession session) throws SQLException {
         String sql = """
             INSERT INTO TEST_SESSION 
-            (userId, difficulty, level, typedText, timeTaken, wpm, accuracy, errors)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?)""";
-            
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, session.getUserId());
-            pstmt.setString(2, session.getDifficulty());
-            pstmt.setInt(3, session.getLevel());
-            pstmt.setString(4, session.getTypedText());
-            pstmt.setLong(5, session.getTimeTaken());
-            pstmt.setDouble(6, session.getWpm());
-            pstmt.setDouble(7, session.getAccuracy());
-            pstmt.setInt(8, session.getErrors());
+            (userId, difficulty, level, typedText, timeTaken, wpm, accuracy, errors, seed, source)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
             
-            pstmt.executeUpdate();
+        try (Connection conn = getConnection()) {
+            // Insert the session and fold it into the trend state atomically
+            boolean autoCommit = conn.getAutoCommit();
+            try {
+                conn.setAutoCommit(false);
+                // Trend state is read before the insert so seeding never counts this session twice;
+                // endless runs are not practice at a level, so they leave the trend alone
+                if (!session.isEndless()) {
+                    updateTrendState(conn, session);
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, session.getUserId());
+                    pstmt.setString(2, session.getDifficulty());
+                    pstmt.setInt(3, session.getLevel());
+                    pstmt.setString(4, session.getTypedText());
+                    pstmt.setLong(5, session.getTimeTaken());
+                    pstmt.setDouble(6, session.getWpm());
+                    pstmt.setDouble(7, session.getAccuracy());
+                    pstmt.setInt(8, session.getErrors());
+                    if (session.getSeed() != null) {
+                        pstmt.setLong(9, session.getSeed());
+                    } else {
+                        pstmt.setNull(9, Types.INTEGER);
+                    }
+                    if (session.getSource() != null) {
+                        pstmt.setString(10, session.getSource().name());
+                    } else {
+                        pstmt.setNull(10, Types.VARCHAR);
+                    }
+                    
+                    pstmt.executeUpdate();
+                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            session.setSessionId(generatedKeys.getInt(1));
+                        }
+                    }
+                }
+                // Use the database's timestamp so cached history sorts exactly like a reload
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT testDate FROM TEST_SESSION WHERE sessionId = ?")) {
+                    pstmt.setInt(1, session.getSessionId());
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next() && rs.getTimestamp("testDate") != null) {
+                            session.setTestDate(rs.getTimestamp("testDate").toLocalDateTime());
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+            // Keep cached statistics and history in step with the database
+            StatisticsCache.getInstance().recordSession(session);
+            HistoryRepository.getInstance().sessionSaved(session);
+            EventBus.getInstance().publish(new SessionSavedEvent(session));
         } catch (SQLException e) {
             String error = "Failed to save test session: " + e.getMessage();
             LOGGER.log(Level.SEVERE, error, e);
@@ -337,101 +510,299 @@ public class DatabaseManager {
     }
 
     /**
-     * Gets test sessions for a specific user, optionally filtered by difficulty.
+     * Gets a user's most recent test sessions, optionally filtered by difficulty.
      * @param userId The ID of the user
      * @param difficulty Optional difficulty to filter by (EASY, MEDIUM, HARD), or null for all
-     * @return A list of test sessions
+     * @return An unmodifiable list of at most {@link HistoryQuery#DEFAULT_PAGE_SIZE} test sessions,
+     *         newest first, shared through {@link HistoryRepository}
      * @throws SQLException if a database error occurs
      */
     public List<TestSession> getUserTestSessions(int userId, String difficulty) throws SQLException {
-        String sql = "SELECT * FROM TEST_SESSION WHERE userId = ?";
-        
-        if (difficulty != null && !difficulty.isEmpty() && !difficulty.equalsIgnoreCase("All")) {
-            sql += " AND UPPER(difficulty) = UPPER(?)";
-        }
-        
-        sql += " ORDER BY testDate DESC";
-        
-        List<TestSession> sessions = new ArrayList<>();
+        return HistoryRepository.getInstance().find(new HistoryQuery(userId, difficulty));
+    }
+    
+    /**
+     * Gets a user's most recent test sessions.
+     * @param userId The ID of the user
+     * @return A list of at most {@link HistoryQuery#DEFAULT_PAGE_SIZE} test sessions, newest first
+     * @throws SQLException if a database error occurs
+     */
+    public List<TestSession> getUserTestSessions(int userId) throws SQLException {
+        return getUserTestSessions(userId, null);
+    }
+
+    /**
+     * Gets a columnar snapshot of a user's test sessions, oldest first.
+     * Typed text is not loaded, keeping the snapshot small.
+     * @param userId The ID of the user
+     * @return The sessions as parallel primitive arrays
+     * @throws SQLException if a database error occurs
+     */
+    public SessionColumns getUserSessionColumns(int userId) throws SQLException {
+        return getUserSessionColumns(userId, 0);
+    }
+
+    /**
+     * Gets a columnar snapshot of the sessions a user saved after a given session, oldest first.
+     * Used to bring already-loaded views up to date without reloading the whole history.
+     * Endless runs are left out, as their text does not come from the level they were saved under.
+     * @param userId The ID of the user
+     * @param afterSessionId Only sessions with a greater ID are returned; 0 for all
+     * @return The sessions as parallel primitive arrays
+     * @throws SQLException if a database error occurs
+     */
+    public SessionColumns getUserSessionColumns(int userId, int afterSessionId) throws SQLException {
+        String sql = "SELECT sessionId, difficulty, level, timeTaken, wpm, accuracy, errors, testDate " +
+                     "FROM TEST_SESSION WHERE userId = ? AND sessionId > ? AND " + LEVEL_SESSIONS +
+                     " ORDER BY testDate, sessionId";
         
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
-            
-            if (difficulty != null && !difficulty.isEmpty() && !difficulty.equalsIgnoreCase("All")) {
-                pstmt.setString(2, difficulty);
+            pstmt.setInt(2, afterSessionId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return SessionColumns.fromResultSet(rs);
             }
-            
+        } catch (SQLException e) {
+            String error = "Failed to get user session columns: " + e.getMessage();
+            LOGGER.log(Level.SEVERE, error, e);
+            throw new SQLException(error, e);
+        }
+    }
+
+    // Dashboard Methods
+
+    /**
+     * Gets the dashboard figures for a user from aggregate queries, without loading any sessions.
+     * testDate holds UTC, so day boundaries are converted to local time in SQL. Endless runs count
+     * towards the test totals and streak but not the best or rolling WPM.
+     * @param userId The ID of the user
+     * @return The user's dashboard summary
+     * @throws SQLException if a database error occurs
+     */
+    public DashboardSummary getDashboardSummary(int userId) throws SQLException {
+        String totalsSql = """
+            SELECT COUNT(*) AS total,
+                   COALESCE(MAX(CASE WHEN %s THEN wpm END), 0) AS best,
+                   COALESCE(SUM(testDate >= datetime('now', 'localtime', 'start of day', 'utc')), 0) AS today
+            FROM TEST_SESSION WHERE userId = ?""".formatted(LEVEL_SESSIONS);
+        String rollingSql = """
+            SELECT COALESCE(AVG(wpm), 0) FROM (
+                SELECT wpm FROM TEST_SESSION WHERE userId = ? AND %s
+                ORDER BY testDate DESC, sessionId DESC LIMIT ?
+            )""".formatted(LEVEL_SESSIONS);
+        String daysSql = """
+            SELECT DISTINCT date(testDate, 'localtime') AS day
+            FROM TEST_SESSION WHERE userId = ? ORDER BY day DESC""";
+
+        DashboardSummary summary = new DashboardSummary();
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(totalsSql)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        summary.setTotalTests(rs.getInt("total"));
+                        summary.setBestWpm(rs.getDouble("best"));
+                        summary.setTestsToday(rs.getInt("today"));
+                    }
+                }
+            }
+            if (summary.getTotalTests() == 0) {
+                return summary;
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(rollingSql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, DashboardSummary.ROLLING_WINDOW);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        summary.setRollingWpm(rs.getDouble(1));
+                    }
+                }
+            }
+
+            // Walk back from today; a streak is still current if the last test was yesterday
+            try (PreparedStatement pstmt = conn.prepareStatement(daysSql)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    LocalDate expected = LocalDate.now();
+                    int streak = 0;
+                    while (rs.next()) {
+                        LocalDate day = LocalDate.parse(rs.getString("day"));
+                        if (day.isAfter(expected)) continue;
+                        if (streak == 0 && day.equals(expected.minusDays(1))) {
+                            expected = day;
+                        }
+                        if (!day.equals(expected)) break;
+                        streak++;
+                        expected = expected.minusDays(1);
+                    }
+                    summary.setCurrentStreak(streak);
+                }
+            }
+            return summary;
+        } catch (SQLException e) {
+            String error = "Failed to get dashboard summary: " + e.getMessage();
+            LOGGER.log(Level.SEVERE, error, e);
+            throw new SQLException(error, e);
+        }
+    }
+
+    // Trend Methods
+
+    /**
+     * Gets the persisted trend state for a user.
+     * Users with history from before trends were tracked are seeded from their most recent
+     * {@link TrendState#WINDOW_SIZE} sessions only, never the full history.
+     * @param userId The ID of the user
+     * @return The user's trend state
+     * @throws SQLException if a database error occurs
+     */
+    public TrendState getTrendState(int userId) throws SQLException {
+        try (Connection conn = getConnection()) {
+            return loadTrendState(conn, userId);
+        } catch (SQLException e) {
+            String error = "Failed to get trend state: " + e.getMessage();
+            LOGGER.log(Level.SEVERE, error, e);
+            throw new SQLException(error, e);
+        }
+    }
+
+    private TrendState loadTrendState(Connection conn, int userId) throws SQLException {
+        String sql = "SELECT sessionCount, emaWpm, emaAccuracy, recentWpm FROM USER_TREND WHERE userId = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    String recent = rs.getString("recentWpm");
+                    double[] recentWpm = recent.isEmpty()
+                        ? new double[0]
+                        : java.util.Arrays.stream(recent.split(",")).mapToDouble(Double::parseDouble).toArray();
+                    return new TrendState(userId, rs.getLong("sessionCount"),
+                        rs.getDouble("emaWpm"), rs.getDouble("emaAccuracy"), recentWpm);
+                }
+            }
+        }
+
+        // No state yet: seed from the latest window of sessions, oldest first
+        TrendState state = new TrendState(userId);
+        String seedSql = "SELECT wpm, accuracy FROM (SELECT wpm, accuracy, testDate, sessionId FROM TEST_SESSION " +
+                         "WHERE userId = ? AND " + LEVEL_SESSIONS + " ORDER BY testDate DESC, sessionId DESC LIMIT ?) ORDER BY testDate, sessionId";
+        try (PreparedStatement pstmt = conn.prepareStatement(seedSql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, TrendState.WINDOW_SIZE);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    TestSession session = new TestSession(
-                        rs.getInt("userId"),
-                        rs.getString("difficulty"),
-                        rs.getInt("level"),
-                        rs.getString("typedText"),
-                        rs.getLong("timeTaken"),
-                        rs.getDouble("wpm"),
-                        rs.getDouble("accuracy"),
-                        rs.getInt("errors")
-                    );
-                    session.setSessionId(rs.getInt("sessionId"));
-                    session.setTestDate(rs.getTimestamp("testDate").toLocalDateTime());
-                    sessions.add(session);
+                    state.addSession(rs.getDouble("wpm"), rs.getDouble("accuracy"));
                 }
             }
         }
-        
-        return sessions;
+        return state;
     }
-    
+
     /**
-     * Gets all test sessions for a specific user.
+     * Folds a just-saved session into the user's persisted trend state.
+     */
+    private void updateTrendState(Connection conn, TestSession session) throws SQLException {
+        TrendState state = loadTrendState(conn, session.getUserId());
+        state.addSession(session.getWpm(), session.getAccuracy());
+
+        StringBuilder recent = new StringBuilder();
+        for (double wpm : state.getRecentWpm()) {
+            if (recent.length() > 0) recent.append(',');
+            recent.append(wpm);
+        }
+
+        String sql = """
+            INSERT OR REPLACE INTO USER_TREND (userId, sessionCount, emaWpm, emaAccuracy, recentWpm)
+            VALUES (?, ?, ?, ?, ?)""";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, state.getUserId());
+            pstmt.setLong(2, state.getSessionCount());
+            pstmt.setDouble(3, state.getEmaWpm());
+            pstmt.setDouble(4, state.getEmaAccuracy());
+            pstmt.setString(5, recent.toString());
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Keystroke Statistics Methods
+
+    /**
+     * Adds one test's keystroke statistics to the user's stored bigram totals.
      * @param userId The ID of the user
-     * @return A list of test sessions
+     * @param stats The statistics recorded during the test
      * @throws SQLException if a database error occurs
      */
-    public List<TestSession> getUserTestSessions(int userId) throws SQLException {
-        return getUserTestSessions(userId, null);
+    public void saveBigramStats(int userId, BigramStats stats) throws SQLException {
+        String sql = """
+            INSERT INTO USER_BIGRAM_STATS (userId, bigram, attempts, errors, latencyMs, timedAttempts)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT(userId, bigram) DO UPDATE SET
+                attempts = attempts + excluded.attempts,
+                errors = errors + excluded.errors,
+                latencyMs = latencyMs + excluded.latencyMs,
+                timedAttempts = timedAttempts + excluded.timedAttempts""";
+
+        try (Connection conn = getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            try {
+                conn.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < BigramStats.SIZE; i++) {
+                        if (stats.getAttempts(i) == 0) continue;
+                        pstmt.setInt(1, userId);
+                        pstmt.setString(2, BigramStats.bigram(i));
+                        pstmt.setInt(3, stats.getAttempts(i));
+                        pstmt.setInt(4, stats.getErrors(i));
+                        pstmt.setLong(5, stats.getLatencyMs(i));
+                        pstmt.setInt(6, stats.getTimedAttempts(i));
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            String error = "Failed to save bigram statistics: " + e.getMessage();
+            LOGGER.log(Level.SEVERE, error, e);
+            throw new SQLException(error, e);
+        }
     }
 
     /**
-     * Gets all test sessions for a specific user.
+     * Gets a user's stored keystroke totals for every letter bigram.
      * @param userId The ID of the user
-     * @return A list of test sessions
+     * @return The user's bigram statistics; empty if they have none yet
      * @throws SQLException if a database error occurs
      */
-    public List<TestSession> getUserTestSessionsOld(int userId) throws SQLException {
-        List<TestSession> sessions = new ArrayList<>();
-        String sql = "SELECT * FROM TEST_SESSION WHERE userId = ? ORDER BY testDate DESC";
-        
+    public BigramStats getBigramStats(int userId) throws SQLException {
+        String sql = "SELECT bigram, attempts, errors, latencyMs, timedAttempts FROM USER_BIGRAM_STATS WHERE userId = ?";
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
             pstmt.setInt(1, userId);
+            BigramStats stats = new BigramStats();
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    TestSession session = new TestSession();
-                    session.setSessionId(rs.getInt("sessionId"));
-                    session.setUserId(rs.getInt("userId"));
-                    session.setDifficulty(rs.getString("difficulty"));
-                    session.setLevel(rs.getInt("level"));
-                    session.setTypedText(rs.getString("typedText"));
-                    session.setTimeTaken(rs.getInt("timeTaken"));
-                    session.setWpm(rs.getDouble("wpm"));
-                    session.setAccuracy(rs.getDouble("accuracy"));
-                    session.setErrors(rs.getInt("errors"));
-                    session.setTestDate(rs.getTimestamp("testDate").toLocalDateTime());
-                    
-                    sessions.add(session);
+                    String bigram = rs.getString("bigram");
+                    int index = bigram.length() == 2 ? BigramStats.index(bigram.charAt(0), bigram.charAt(1)) : -1;
+                    if (index < 0) continue;
+                    stats.set(index, rs.getInt("attempts"), rs.getInt("errors"),
+                        rs.getLong("latencyMs"), rs.getInt("timedAttempts"));
                 }
             }
+            return stats;
         } catch (SQLException e) {
-            String error = "Failed to get user test sessions: " + e.getMessage();
+            String error = "Failed to get bigram statistics: " + e.getMessage();
             LOGGER.log(Level.SEVERE, error, e);
             throw new SQLException(error, e);
         }
-        return sessions;
     }
 
     // Passage Management Methods
@@ -489,29 +860,46 @@ public class DatabaseManager {
     
     /**
      * Gets a typing passage with the specified difficulty and level.
+     * Served from {@link PassageCatalogue}, which loads the PASSAGES table once.
      * @param difficulty The difficulty level (EASY, MEDIUM, HARD)
      * @param level The level within the difficulty (1, 2, etc.)
      * @return The passage content
      * @throws SQLException if a database error occurs or passage not found
      */
     public String getPassage(String difficulty, int level) throws SQLException {
-        String sql = "SELECT content FROM PASSAGES WHERE difficulty = ? AND level = ?";
+        String content;
+        try {
+            content = PassageCatalogue.getInstance().getStoredPassage(difficulty, level);
+        } catch (IllegalArgumentException e) {
+            content = null;
+        }
+        if (content == null) {
+            String error = "Failed to get passage: No passage found for difficulty: " + difficulty + ", level: " + level;
+            LOGGER.severe(error);
+            throw new SQLException(error);
+        }
+        return content;
+    }
+
+    /**
+     * Gets every passage in the PASSAGES table.
+     * @return The passages, ordered by difficulty and level
+     * @throws SQLException if a database error occurs
+     */
+    public List<Passage> getAllPassages() throws SQLException {
+        String sql = "SELECT difficulty, level, content FROM PASSAGES ORDER BY difficulty, level";
         
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, difficulty.toUpperCase());
-            pstmt.setInt(2, level);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("content");
-                } else {
-                    throw new SQLException("No passage found for difficulty: " + difficulty + ", level: " + level);
-                }
+            List<Passage> passages = new ArrayList<>();
+            while (rs.next()) {
+                passages.add(new Passage(rs.getString("difficulty"), rs.getInt("level"), rs.getString("content")));
             }
+            return passages;
         } catch (SQLException e) {
-            String error = "Failed to get passage: " + e.getMessage();
+            String error = "Failed to get passages: " + e.getMessage();
             LOGGER.log(Level.SEVERE, error, e);
             throw new SQLException(error, e);
         }
@@ -537,26 +925,12 @@ public class DatabaseManager {
             pstmt.setString(3, content);
             
             pstmt.executeUpdate();
+            PassageCatalogue.getInstance().passageSaved(difficulty, level, content);
+            EventBus.getInstance().publish(new PassageChangedEvent(difficulty.toUpperCase(), level));
         } catch (SQLException e) {
             String error = "Failed to save passage: " + e.getMessage();
             LOGGER.log(Level.SEVERE, error, e);
             throw new SQLException(error, e);
         }
     }
-
-    /**
-     * Closes the database connection.
-     */
-    public void close() {
-        if (connection != null) {
-            try {
-                connection.close();
-                LOGGER.info("Database connection closed");
-            } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error closing database connection", e);
-            } finally {
-                connection = null;
-            }
-        }
-    }
 }
@@ -0,0 +1,82 @@
+package org.example.util;
+
+/**
+ * Reduces long numeric series to a fixed number of visually representative points.
+ */
+public class Downsampler {
+
+    private Downsampler() {
+        // Utility class
+    }
+
+    /**
+     * Selects points using the Largest-Triangle-Three-Buckets algorithm.
+     * The first and last points of the range are always kept.
+     * @param xs The x values, sorted ascending
+     * @param ys The y values, parallel to {@code xs}
+     * @param from The first index of the range (inclusive)
+     * @param to The last index of the range (exclusive)
+     * @param threshold The maximum number of points to return
+     * @return The indices of the selected points, in ascending order
+     */
+    public static int[] largestTriangleThreeBuckets(double[] xs, double[] ys, int from, int to, int threshold) {
+        int length = to - from;
+        if (length <= 0) {
+            return new int[0];
+        }
+        if (threshold < 3 || length <= threshold) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        int sampledCount = 0;
+
+        // Bucket size, leaving room for the fixed first and last points
+        double every = (double) (length - 2) / (threshold - 2);
+
+        int a = from;
+        sampled[sampledCount++] = a;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average point of the next bucket
+            int avgStart = from + (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min(from + (int) Math.floor((i + 2) * every) + 1, to);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += xs[j];
+                avgY += ys[j];
+            }
+            int avgLength = avgEnd - avgStart;
+            if (avgLength > 0) {
+                avgX /= avgLength;
+                avgY /= avgLength;
+            }
+
+            // Pick the point in the current bucket forming the largest triangle
+            int rangeStart = from + (int) Math.floor(i * every) + 1;
+            int rangeEnd = from + (int) Math.floor((i + 1) * every) + 1;
+            double ax = xs[a];
+            double ay = ys[a];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (ys[j] - ay) - (ax - xs[j]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+
+            sampled[sampledCount++] = next;
+            a = next;
+        }
+
+        sampled[sampledCount] = to - 1;
+        return sampled;
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.service;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process publish/subscribe for application events such as {@link SessionSavedEvent}.
+ * Subscribers are keyed by event class and receive events of that class and its subclasses.
+ *
+ * Background subscribers run in publish order on a single dispatch thread with a bounded queue.
+ * If the queue fills, a publisher waits for room rather than dropping events, except on the EDT,
+ * which must not block: there the delivery runs on the EDT itself, ahead of the queued events,
+ * so ordering and the dispatch thread are only guaranteed while the queue has room.
+ * Swing subscribers are delivered on the EDT. A failing subscriber is logged and never
+ * affects the publisher or other subscribers.
+ */
+public class EventBus {
+    private static final Logger LOGGER = Logger.getLogger(EventBus.class.getName());
+    private static final int QUEUE_CAPACITY = 1024;
+    private static EventBus instance;
+
+    private final Map<Class<?>, List<Subscriber<?>>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Handle returned by subscribe; unsubscribing stops further deliveries.
+     */
+    public interface Subscription {
+        void unsubscribe();
+    }
+
+    private static class Subscriber<E> {
+        final Class<E> type;
+        final Consumer<? super E> handler;
+        final boolean onEdt;
+
+        Subscriber(Class<E> type, Consumer<? super E> handler, boolean onEdt) {
+            this.type = type;
+            this.handler = handler;
+            this.onEdt = onEdt;
+        }
+
+        void deliver(Object event) {
+            try {
+                handler.accept(type.cast(event));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Event subscriber failed for " + type.getSimpleName(), e);
+            }
+        }
+    }
+
+    private EventBus() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "event-bus");
+                thread.setDaemon(true);
+                return thread;
+            },
+            EventBus::queueFull);
+    }
+
+    /**
+     * Waits for room in the full queue, or on the EDT delivers at once; see the class comment.
+     */
+    private static void queueFull(Runnable delivery, ThreadPoolExecutor executor) {
+        if (!SwingUtilities.isEventDispatchThread() && !executor.isShutdown()) {
+            try {
+                executor.getQueue().put(delivery);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        LOGGER.warning("Event queue full; delivering on " + Thread.currentThread().getName() + " out of order");
+        delivery.run();
+    }
+
+    /**
+     * Gets the singleton instance of EventBus.
+     * @return The EventBus instance
+     */
+    public static synchronized EventBus getInstance() {
+        if (instance == null) {
+            instance = new EventBus();
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes a handler that runs on the event bus thread.
+     * Handlers should be short; long work should be handed to a worker.
+     * @param type The event class
+     * @param handler Receives each event
+     * @return A handle for unsubscribing
+     */
+    public <E> Subscription subscribe(Class<E> type, Consumer<? super E> handler) {
+        return add(new Subscriber<>(type, handler, false));
+    }
+
+    /**
+     * Subscribes a handler that runs on the Swing event dispatch thread.
+     * @param type The event class
+     * @param handler Receives each event
+     * @return A handle for unsubscribing
+     */
+    public <E> Subscription subscribeOnEdt(Class<E> type, Consumer<? super E> handler) {
+        return add(new Subscriber<>(type, handler, true));
+    }
+
+    private Subscription add(Subscriber<?> subscriber) {
+        List<Subscriber<?>> list = subscribers.computeIfAbsent(subscriber.type, k -> new CopyOnWriteArrayList<>());
+        list.add(subscriber);
+        return () -> list.remove(subscriber);
+    }
+
+    /**
+     * Publishes an event to every subscriber of its class or a superclass. Returns without waiting for delivery.
+     * @param event The event
+     */
+    public void publish(Object event) {
+        for (Map.Entry<Class<?>, List<Subscriber<?>>> entry : subscribers.entrySet()) {
+            if (!entry.getKey().isInstance(event)) continue;
+            for (Subscriber<?> subscriber : entry.getValue()) {
+                if (subscriber.onEdt) {
+                    SwingUtilities.invokeLater(() -> subscriber.deliver(event));
+                } else {
+                    executor.execute(() -> subscriber.deliver(event));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of background deliveries waiting to run
+     */
+    public int getPendingCount() {
+        return executor.getQueue().size();
+    }
+}
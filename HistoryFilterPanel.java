@@ -0,0 +1,152 @@
+package org.example.view.panels;
+
+import org.example.database.HistoryQuery;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Filter controls shared by the history views. Values are validated when applied,
+ * so {@link #applyTo} always produces a valid query.
+ */
+public class HistoryFilterPanel extends JPanel {
+    private static final String[] DIFFICULTIES = {"All", "Easy", "Medium", "Hard"};
+    private static final String[] LEVELS = {"All", "1", "2", "3"};
+
+    private final JComboBox<String> difficultyBox = new JComboBox<>(DIFFICULTIES);
+    private final JComboBox<String> levelBox = new JComboBox<>(LEVELS);
+    private final JTextField fromField = new JTextField(8);
+    private final JTextField toField = new JTextField(8);
+    private final JTextField minWpmField = new JTextField(4);
+    private final JTextField maxWpmField = new JTextField(4);
+    private final Runnable onApply;
+
+    // Last applied values
+    private String difficulty;
+    private Integer level;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Double minWpm;
+    private Double maxWpm;
+
+    /**
+     * @param onApply Called after the filters are applied or cleared
+     */
+    public HistoryFilterPanel(Runnable onApply) {
+        super(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        this.onApply = onApply;
+
+        fromField.setToolTipText("yyyy-MM-dd");
+        toField.setToolTipText("yyyy-MM-dd");
+
+        add(new JLabel("Difficulty:"));
+        add(difficultyBox);
+        add(new JLabel("Level:"));
+        add(levelBox);
+        add(new JLabel("From:"));
+        add(fromField);
+        add(new JLabel("To:"));
+        add(toField);
+        add(new JLabel("WPM:"));
+        add(minWpmField);
+        add(new JLabel("-"));
+        add(maxWpmField);
+
+        JButton applyButton = new JButton("Apply");
+        applyButton.addActionListener(e -> apply());
+        add(applyButton);
+
+        JButton clearButton = new JButton("Clear");
+        clearButton.addActionListener(e -> clear());
+        add(clearButton);
+    }
+
+    /**
+     * Sets the applied filters on a query builder.
+     * @param builder The builder to update
+     * @return The same builder
+     */
+    public HistoryQuery.Builder applyTo(HistoryQuery.Builder builder) {
+        return builder
+            .difficulty(difficulty)
+            .level(level)
+            .dateRange(fromDate, toDate)
+            .wpmRange(minWpm, maxWpm);
+    }
+
+    /**
+     * @return true if any filter is applied
+     */
+    public boolean isFiltered() {
+        return difficulty != null || level != null || fromDate != null || toDate != null
+            || minWpm != null || maxWpm != null;
+    }
+
+    private void apply() {
+        try {
+            LocalDate newFrom = parseDate(fromField.getText());
+            LocalDate newTo = parseDate(toField.getText());
+            Double newMin = parseWpm(minWpmField.getText());
+            Double newMax = parseWpm(maxWpmField.getText());
+            if (newFrom != null && newTo != null && newFrom.isAfter(newTo)) {
+                throw new IllegalArgumentException("The start date must not be after the end date.");
+            }
+            if (newMin != null && newMax != null && newMin > newMax) {
+                throw new IllegalArgumentException("The minimum WPM must not be greater than the maximum.");
+            }
+
+            String selectedDifficulty = (String) difficultyBox.getSelectedItem();
+            String selectedLevel = (String) levelBox.getSelectedItem();
+            difficulty = "All".equals(selectedDifficulty) ? null : selectedDifficulty;
+            level = "All".equals(selectedLevel) ? null : Integer.valueOf(selectedLevel);
+            fromDate = newFrom;
+            toDate = newTo;
+            minWpm = newMin;
+            maxWpm = newMax;
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Invalid Filter", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        onApply.run();
+    }
+
+    private void clear() {
+        difficultyBox.setSelectedIndex(0);
+        levelBox.setSelectedIndex(0);
+        fromField.setText("");
+        toField.setText("");
+        minWpmField.setText("");
+        maxWpmField.setText("");
+        difficulty = null;
+        level = null;
+        fromDate = null;
+        toDate = null;
+        minWpm = null;
+        maxWpm = null;
+        onApply.run();
+    }
+
+    private static LocalDate parseDate(String text) {
+        if (text.isBlank()) return null;
+        try {
+            return LocalDate.parse(text.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Dates must be in the form yyyy-MM-dd: " + text.trim());
+        }
+    }
+
+    private static Double parseWpm(String text) {
+        if (text.isBlank()) return null;
+        try {
+            double value = Double.parseDouble(text.trim());
+            if (value < 0) {
+                throw new IllegalArgumentException("WPM must not be negative.");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("WPM must be a number: " + text.trim());
+        }
+    }
+}
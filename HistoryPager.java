@@ -0,0 +1,77 @@
+package org.example.view.panels;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Previous/next page controls for the history views.
+ */
+public class HistoryPager extends JPanel {
+    private final int pageSize;
+    private final Runnable onPageChanged;
+    private final JButton previousButton = new JButton("< Previous");
+    private final JButton nextButton = new JButton("Next >");
+    private final JLabel pageLabel = new JLabel();
+    private int offset;
+    private int loadedOffset; // the offset of the page on screen
+    private int total;
+
+    /**
+     * @param pageSize Rows per page
+     * @param onPageChanged Called after the user moves to another page; the load it starts must
+     *                      end in {@link #setTotal(int)} or {@link #loadFailed()}
+     */
+    public HistoryPager(int pageSize, Runnable onPageChanged) {
+        super(new FlowLayout(FlowLayout.CENTER));
+        this.pageSize = pageSize;
+        this.onPageChanged = onPageChanged;
+
+        previousButton.addActionListener(e -> moveTo(offset - pageSize));
+        nextButton.addActionListener(e -> moveTo(offset + pageSize));
+        add(previousButton);
+        add(pageLabel);
+        add(nextButton);
+        setTotal(0);
+    }
+
+    public int getOffset() { return offset; }
+    public int getPageSize() { return pageSize; }
+
+    /**
+     * Returns to the first page without notifying, e.g. before a new sort or filter is loaded.
+     */
+    public void firstPage() {
+        offset = 0;
+    }
+
+    /**
+     * Updates the controls for the number of matching rows.
+     * @param total The number of rows across all pages
+     */
+    public void setTotal(int total) {
+        this.total = total;
+        loadedOffset = offset;
+        int pages = Math.max(1, (total + pageSize - 1) / pageSize);
+        int page = Math.min(pages, offset / pageSize + 1);
+        pageLabel.setText(String.format("Page %d of %d (%d tests)", page, pages, total));
+        previousButton.setEnabled(offset > 0);
+        nextButton.setEnabled(offset + pageSize < total);
+    }
+
+    /**
+     * Goes back to the page still on screen after its replacement failed to load, and re-enables
+     * the controls.
+     */
+    public void loadFailed() {
+        offset = loadedOffset;
+        setTotal(total);
+    }
+
+    private void moveTo(int newOffset) {
+        if (newOffset < 0 || newOffset >= Math.max(total, 1)) return;
+        offset = newOffset;
+        previousButton.setEnabled(false);
+        nextButton.setEnabled(false);
+        onPageChanged.run();
+    }
+}
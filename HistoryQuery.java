@@ -0,0 +1,262 @@
+package org.example.database;
+
+import org.example.model.TestSession;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Identifies one view of a user's test history: its filters, sort order and page.
+ * Used as the cache key in {@link HistoryRepository}, which translates it into indexed SQL.
+ */
+public class HistoryQuery {
+
+    /**
+     * Columns the history can be sorted by. Each maps to a fixed SQL expression,
+     * so sort requests from the UI never reach the database as raw text.
+     */
+    public enum SortColumn {
+        DATE("testDate"),
+        DURATION("timeTaken"),
+        DIFFICULTY("difficulty COLLATE NOCASE"),
+        LEVEL("level"),
+        WPM("wpm"),
+        ACCURACY("accuracy"),
+        ERRORS("errors");
+
+        private final String sql;
+
+        SortColumn(String sql) {
+            this.sql = sql;
+        }
+
+        String getSql() { return sql; }
+    }
+
+    /**
+     * Page size of the {@link #HistoryQuery(int, String)} convenience queries, so a cached
+     * result never holds a user's whole history with its typed text.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    private final int userId;
+    private final String difficulty;
+    private final Integer level;
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final Double minWpm;
+    private final Double maxWpm;
+    private final SortColumn sortColumn;
+    private final boolean ascending;
+    private final int offset;
+    private final int limit;
+
+    /**
+     * Creates a query for the newest {@link #DEFAULT_PAGE_SIZE} sessions; use {@link #builder(int)} for other pages.
+     * @param userId The ID of the user
+     * @param difficulty The difficulty to filter by, or null/"All" for every difficulty
+     */
+    public HistoryQuery(int userId, String difficulty) {
+        this(builder(userId).difficulty(difficulty).page(0, DEFAULT_PAGE_SIZE));
+    }
+
+    private HistoryQuery(Builder builder) {
+        this.userId = builder.userId;
+        this.difficulty = builder.difficulty;
+        this.level = builder.level;
+        this.fromDate = builder.fromDate;
+        this.toDate = builder.toDate;
+        this.minWpm = builder.minWpm;
+        this.maxWpm = builder.maxWpm;
+        this.sortColumn = builder.sortColumn;
+        this.ascending = builder.ascending;
+        this.offset = builder.offset;
+        this.limit = builder.limit;
+    }
+
+    public static HistoryQuery forUser(int userId) {
+        return new HistoryQuery(userId, null);
+    }
+
+    public static Builder builder(int userId) {
+        return new Builder(userId);
+    }
+
+    /**
+     * Creates a builder initialised with this query's filters, sort and page.
+     */
+    public Builder toBuilder() {
+        return new Builder(userId)
+            .difficulty(difficulty)
+            .level(level)
+            .dateRange(fromDate, toDate)
+            .wpmRange(minWpm, maxWpm)
+            .sort(sortColumn, ascending)
+            .page(offset, limit);
+    }
+
+    public int getUserId() { return userId; }
+    public String getDifficulty() { return difficulty; }
+    public Integer getLevel() { return level; }
+    public LocalDate getFromDate() { return fromDate; }
+    public LocalDate getToDate() { return toDate; }
+    public Double getMinWpm() { return minWpm; }
+    public Double getMaxWpm() { return maxWpm; }
+    public SortColumn getSortColumn() { return sortColumn; }
+    public boolean isAscending() { return ascending; }
+    public int getOffset() { return offset; }
+    public int getLimit() { return limit; }
+
+    /**
+     * @return true if results are newest first, i.e. a new session always belongs at the top
+     */
+    public boolean isNewestFirst() {
+        return sortColumn == SortColumn.DATE && !ascending;
+    }
+
+    /**
+     * Gets the same filters with the default sort and no paging; identifies the row count shared by every page.
+     */
+    public HistoryQuery unpaged() {
+        return toBuilder().sort(SortColumn.DATE, false).page(0, 0).build();
+    }
+
+    /**
+     * Checks whether a session passes this query's filters. Sort and paging are not considered.
+     * @param session The session to test
+     * @return true if the session matches every filter
+     */
+    public boolean matches(TestSession session) {
+        if (session.getUserId() != userId) return false;
+        if (difficulty != null && !difficulty.equalsIgnoreCase(session.getDifficulty())) return false;
+        // An endless run is saved under a level but did not type its passages
+        if (level != null && (session.isEndless() || session.getLevel() != level)) return false;
+        if (minWpm != null && session.getWpm() < minWpm) return false;
+        if (maxWpm != null && session.getWpm() > maxWpm) return false;
+        if (fromDate != null || toDate != null) {
+            LocalDateTime testDate = session.getTestDate();
+            if (testDate == null) return false;
+            if (fromDate != null && testDate.isBefore(fromDate.atStartOfDay())) return false;
+            if (toDate != null && !testDate.isBefore(toDate.plusDays(1).atStartOfDay())) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HistoryQuery)) return false;
+        HistoryQuery other = (HistoryQuery) o;
+        return userId == other.userId
+            && ascending == other.ascending
+            && offset == other.offset
+            && limit == other.limit
+            && Objects.equals(difficulty, other.difficulty)
+            && Objects.equals(level, other.level)
+            && Objects.equals(fromDate, other.fromDate)
+            && Objects.equals(toDate, other.toDate)
+            && Objects.equals(minWpm, other.minWpm)
+            && Objects.equals(maxWpm, other.maxWpm)
+            && sortColumn == other.sortColumn;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, difficulty, level, fromDate, toDate, minWpm, maxWpm,
+            sortColumn, ascending, offset, limit);
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryQuery[userId=" + userId
+            + ", difficulty=" + (difficulty != null ? difficulty : "All")
+            + ", level=" + (level != null ? level : "All")
+            + ", dates=" + fromDate + ".." + toDate
+            + ", wpm=" + minWpm + ".." + maxWpm
+            + ", sort=" + sortColumn + (ascending ? " ASC" : " DESC")
+            + ", offset=" + offset + ", limit=" + limit + "]";
+    }
+
+    /**
+     * Builds a {@link HistoryQuery}. Unset filters match everything; the default order is newest first with no paging.
+     */
+    public static class Builder {
+        private final int userId;
+        private String difficulty;
+        private Integer level;
+        private LocalDate fromDate;
+        private LocalDate toDate;
+        private Double minWpm;
+        private Double maxWpm;
+        private SortColumn sortColumn = SortColumn.DATE;
+        private boolean ascending;
+        private int offset;
+        private int limit;
+
+        private Builder(int userId) {
+            this.userId = userId;
+        }
+
+        /**
+         * @param difficulty The difficulty to filter by, or null/"All" for every difficulty
+         */
+        public Builder difficulty(String difficulty) {
+            this.difficulty = difficulty == null || difficulty.isEmpty() || difficulty.equalsIgnoreCase("All")
+                ? null
+                : difficulty.toUpperCase();
+            return this;
+        }
+
+        /**
+         * @param level The level to filter by, or null for every level
+         */
+        public Builder level(Integer level) {
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * @param fromDate First day to include, or null for no lower bound
+         * @param toDate Last day to include, or null for no upper bound
+         */
+        public Builder dateRange(LocalDate fromDate, LocalDate toDate) {
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            return this;
+        }
+
+        /**
+         * @param minWpm Lowest WPM to include, or null for no lower bound
+         * @param maxWpm Highest WPM to include, or null for no upper bound
+         */
+        public Builder wpmRange(Double minWpm, Double maxWpm) {
+            this.minWpm = minWpm;
+            this.maxWpm = maxWpm;
+            return this;
+        }
+
+        public Builder sort(SortColumn sortColumn, boolean ascending) {
+            this.sortColumn = Objects.requireNonNull(sortColumn, "sortColumn");
+            this.ascending = ascending;
+            return this;
+        }
+
+        /**
+         * @param offset Number of matching rows to skip
+         * @param limit Maximum number of rows to return, or 0 for all
+         */
+        public Builder page(int offset, int limit) {
+            if (offset < 0 || limit < 0) {
+                throw new IllegalArgumentException("Offset and limit must not be negative");
+            }
+            this.offset = offset;
+            this.limit = limit;
+            return this;
+        }
+
+        public HistoryQuery build() {
+            return new HistoryQuery(this);
+        }
+    }
+}
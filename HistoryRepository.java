@@ -0,0 +1,271 @@
+package org.example.database;
+
+import org.example.model.TestSession;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Single source of test history for every view, backed by TEST_SESSION.
+ * Filtering, sorting and paging run in SQL against the TEST_SESSION indexes, so a page
+ * costs about the same however long the history is. Pages and row counts are kept in
+ * bounded LRU caches keyed by {@link HistoryQuery}.
+ */
+public class HistoryRepository {
+    private static final Logger LOGGER = Logger.getLogger(HistoryRepository.class.getName());
+    private static final int MAX_CACHED_QUERIES = 32;
+    private static final int MAX_CACHED_ROWS_PER_QUERY = 50_000;
+    // Matches the text SQLite's CURRENT_TIMESTAMP stores in testDate
+    private static final DateTimeFormatter SQL_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static HistoryRepository instance;
+
+    private final Map<HistoryQuery, List<TestSession>> cache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<HistoryQuery, List<TestSession>> eldest) {
+                return size() > MAX_CACHED_QUERIES;
+            }
+        };
+    private final Map<HistoryQuery, Integer> counts =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<HistoryQuery, Integer> eldest) {
+                return size() > MAX_CACHED_QUERIES;
+            }
+        };
+    private long generation;
+
+    private HistoryRepository() {
+        // Private constructor to enforce singleton pattern
+    }
+
+    /**
+     * Gets the singleton instance of HistoryRepository.
+     * @return The HistoryRepository instance
+     */
+    public static synchronized HistoryRepository getInstance() {
+        if (instance == null) {
+            instance = new HistoryRepository();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets one page of the sessions matching a query, in the query's sort order.
+     * @param query The user, filters, sort and page
+     * @return An unmodifiable list of sessions
+     * @throws SQLException if a database error occurs
+     */
+    public List<TestSession> find(HistoryQuery query) throws SQLException {
+        long loadGeneration;
+        synchronized (this) {
+            List<TestSession> cached = cache.get(query);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+
+        List<TestSession> sessions = Collections.unmodifiableList(load(query));
+
+        synchronized (this) {
+            // A session saved during the load may be missing from the result; don't cache it then
+            if (loadGeneration == generation && sessions.size() <= MAX_CACHED_ROWS_PER_QUERY) {
+                cache.put(query, sessions);
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Counts the sessions passing a query's filters, ignoring its sort and page.
+     * @param query The user and filters
+     * @return The number of matching sessions
+     * @throws SQLException if a database error occurs
+     */
+    public int count(HistoryQuery query) throws SQLException {
+        HistoryQuery key = query.unpaged();
+        long loadGeneration;
+        synchronized (this) {
+            Integer cached = counts.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM TEST_SESSION" + buildWhere(key, params);
+        int total;
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                total = rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            String error = "Failed to count test history: " + e.getMessage();
+            LOGGER.log(Level.SEVERE, error, e);
+            throw new SQLException(error, e);
+        }
+
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                counts.put(key, total);
+            }
+        }
+        return total;
+    }
+
+    private List<TestSession> load(HistoryQuery query) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM TEST_SESSION").append(buildWhere(query, params));
+
+        // sessionId breaks ties so pages never overlap or skip rows
+        String direction = query.isAscending() ? " ASC" : " DESC";
+        sql.append(" ORDER BY ").append(query.getSortColumn().getSql()).append(direction)
+           .append(", sessionId").append(direction);
+        if (query.getLimit() > 0 || query.getOffset() > 0) {
+            // SQLite treats a negative limit as no limit
+            sql.append(" LIMIT ? OFFSET ?");
+            params.add(query.getLimit() > 0 ? query.getLimit() : -1);
+            params.add(query.getOffset());
+        }
+
+        List<TestSession> sessions = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sessions.add(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            String error = "Failed to load test history: " + e.getMessage();
+            LOGGER.log(Level.SEVERE, error, e);
+            throw new SQLException(error, e);
+        }
+        return sessions;
+    }
+
+    /**
+     * Builds the WHERE clause for a query's filters. Every condition is a comparison on an indexed
+     * column; difficulty uses NOCASE to match the collation of its index.
+     */
+    private static String buildWhere(HistoryQuery query, List<Object> params) {
+        StringBuilder where = new StringBuilder(" WHERE userId = ?");
+        params.add(query.getUserId());
+        if (query.getDifficulty() != null) {
+            where.append(" AND difficulty = ? COLLATE NOCASE");
+            params.add(query.getDifficulty());
+        }
+        if (query.getLevel() != null) {
+            where.append(" AND level = ? AND ").append(DatabaseManager.LEVEL_SESSIONS);
+            params.add(query.getLevel());
+        }
+        if (query.getFromDate() != null) {
+            where.append(" AND testDate >= ?");
+            params.add(query.getFromDate().atStartOfDay().format(SQL_TIMESTAMP));
+        }
+        if (query.getToDate() != null) {
+            where.append(" AND testDate < ?");
+            params.add(query.getToDate().plusDays(1).atStartOfDay().format(SQL_TIMESTAMP));
+        }
+        if (query.getMinWpm() != null) {
+            where.append(" AND wpm >= ?");
+            params.add(query.getMinWpm());
+        }
+        if (query.getMaxWpm() != null) {
+            where.append(" AND wpm <= ?");
+            params.add(query.getMaxWpm());
+        }
+        return where.toString();
+    }
+
+    private static void bind(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static TestSession mapRow(ResultSet rs) throws SQLException {
+        TestSession session = new TestSession();
+        session.setSessionId(rs.getInt("sessionId"));
+        session.setUserId(rs.getInt("userId"));
+        session.setDifficulty(rs.getString("difficulty"));
+        session.setLevel(rs.getInt("level"));
+        session.setTypedText(rs.getString("typedText"));
+        session.setTimeTaken(rs.getInt("timeTaken"));
+        session.setWpm(rs.getDouble("wpm"));
+        session.setAccuracy(rs.getDouble("accuracy"));
+        session.setErrors(rs.getInt("errors"));
+        Timestamp testDate = rs.getTimestamp("testDate");
+        session.setTestDate(testDate != null ? testDate.toLocalDateTime() : null);
+        long seed = rs.getLong("seed");
+        session.setSeed(rs.wasNull() ? null : seed);
+        String source = rs.getString("source");
+        session.setSource(source != null ? TestSession.PassageSource.valueOf(source) : null);
+        return session;
+    }
+
+    /**
+     * Adds a just-saved session to every cached result it belongs to.
+     * Newest-first first pages take the session at the top; other sorts and pages shift, so they are dropped.
+     * Called by {@link DatabaseManager#saveTestSession} once the row is committed.
+     * @param session The saved session, with its ID and test date set
+     */
+    public synchronized void sessionSaved(TestSession session) {
+        generation++;
+        Iterator<Map.Entry<HistoryQuery, List<TestSession>>> it = cache.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<HistoryQuery, List<TestSession>> entry = it.next();
+            HistoryQuery query = entry.getKey();
+            if (!query.matches(session)) continue;
+            if (!query.isNewestFirst() || query.getOffset() > 0
+                    || entry.getValue().size() >= MAX_CACHED_ROWS_PER_QUERY) {
+                it.remove();
+                continue;
+            }
+            // Copy-on-write: lists already handed out stay unchanged
+            List<TestSession> updated = new ArrayList<>(entry.getValue().size() + 1);
+            updated.add(session);
+            updated.addAll(entry.getValue());
+            if (query.getLimit() > 0 && updated.size() > query.getLimit()) {
+                updated.remove(updated.size() - 1);
+            }
+            entry.setValue(Collections.unmodifiableList(updated));
+        }
+        counts.replaceAll((query, total) -> query.matches(session) ? total + 1 : total);
+    }
+
+    /**
+     * Drops every cached result for a user.
+     * @param userId The ID of the user
+     */
+    public synchronized void invalidate(int userId) {
+        generation++;
+        cache.keySet().removeIf(query -> query.getUserId() == userId);
+        counts.keySet().removeIf(query -> query.getUserId() == userId);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        cache.clear();
+        counts.clear();
+    }
+}
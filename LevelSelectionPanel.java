@@ -1,13 +1,17 @@
 package org.example.view.panels;
 
+import org.example.service.PassagePrefetcher;
 import org.example.view.MainFrame;
+import org.example.view.ManagedView;
 
 import javax.swing.*;
 import java.awt.*;
 
-public class LevelSelectionPanel extends JPanel {
+public class LevelSelectionPanel extends JPanel implements ManagedView {
     private final MainFrame parentFrame;
-    private final String difficulty;
+    private String difficulty;
+    private JLabel titleLabel;
+    private JTextField seedField;
     
     public LevelSelectionPanel(MainFrame parent, String difficulty) {
         this.parentFrame = parent;
@@ -21,7 +25,7 @@ public class LevelSelectionPanel extends JPanel {
         
         // Title panel
         JPanel titlePanel = new JPanel();
-        JLabel titleLabel = new JLabel("Select Level - " + difficulty, JLabel.CENTER);
+        titleLabel = new JLabel("Select Level - " + difficulty, JLabel.CENTER);
         titleLabel.setFont(new Font(titleLabel.getFont().getName(), Font.BOLD, 24));
         titlePanel.add(titleLabel);
         
@@ -38,17 +42,58 @@ public class LevelSelectionPanel extends JPanel {
             buttonsPanel.add(levelButton);
         }
         
+        // Optional seed so a test can be repeated, or shared with a whole class
+        JPanel seedPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        seedPanel.add(new JLabel("Seed (optional):"));
+        seedField = new JTextField(12);
+        seedField.setToolTipText("Everyone who enters the same seed gets the same passage");
+        seedPanel.add(seedField);
+        
         // Back button
         JButton backButton = new JButton("Back to Difficulty Selection");
         backButton.addActionListener(e -> parentFrame.showView("DASHBOARD"));
         
+        JPanel bottomPanel = new JPanel(new BorderLayout(10, 10));
+        bottomPanel.add(seedPanel, BorderLayout.NORTH);
+        bottomPanel.add(backButton, BorderLayout.SOUTH);
+        
         // Add components to panel
         add(titlePanel, BorderLayout.NORTH);
         add(buttonsPanel, BorderLayout.CENTER);
-        add(backButton, BorderLayout.SOUTH);
+        add(bottomPanel, BorderLayout.SOUTH);
+    }
+    
+    /**
+     * Switches the panel to another difficulty so it can be reused.
+     * @param difficulty The difficulty to select levels for
+     */
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+        titleLabel.setText("Select Level - " + difficulty);
+    }
+    
+    @Override
+    public void onStart() {
+        // Have a passage ready for whichever level is clicked
+        PassagePrefetcher.getInstance().prefetch(difficulty);
     }
     
     private void startTypingTest(int level) {
-        parentFrame.startTypingTest(difficulty, level);
+        String seedText = seedField.getText().trim();
+        if (seedText.isEmpty()) {
+            parentFrame.startTypingTest(difficulty, level);
+            return;
+        }
+        long seed;
+        try {
+            seed = Long.parseLong(seedText);
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this,
+                "The seed must be a whole number.",
+                "Invalid Seed",
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        parentFrame.startTypingTest(difficulty, level, seed);
     }
 }
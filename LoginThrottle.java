@@ -0,0 +1,303 @@
+package org.example.service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Limits login attempts before any password hashing or SQL runs, so a runaway script cannot
+ * keep the CPU busy hashing. Login paths call {@link #acquire} first, so a rejected attempt
+ * costs no query and no hashing. An attempt must pass three checks, cheapest first:
+ * <ol>
+ *   <li>the username is not locked out after too many consecutive failures</li>
+ *   <li>the username's token bucket has a token</li>
+ *   <li>the global token bucket has a token</li>
+ * </ol>
+ * Per-username state lives in {@link #STRIPES} stripes chosen by a hash of the lower-cased
+ * username, so memory is fixed however many names are tried; two names sharing a stripe share
+ * its bucket and lockout. Each bucket is one {@code long} packing its refill time and tokens,
+ * updated by compare-and-set, so checks never lock. Unknown usernames are throttled and locked
+ * out like real ones, so lockouts do not reveal which names exist.
+ */
+public class LoginThrottle {
+    private static final Logger LOGGER = Logger.getLogger(LoginThrottle.class.getName());
+    private static LoginThrottle instance;
+
+    public static final int STRIPES = 1024;
+
+    // Bucket state: milliseconds since the throttle started in the high bits, thousandths of a
+    // token in the low TOKEN_BITS. State 0 marks a bucket never used, which starts full
+    private static final int TOKEN_BITS = 20;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long TOKEN = 1000;
+
+    private final long origin = System.nanoTime();
+    private final AtomicLongArray userBuckets = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray globalBucket = new AtomicLongArray(1);
+    private final AtomicLongArray failures = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray lockedUntil = new AtomicLongArray(STRIPES);
+    private volatile Policy policy = Policy.builder().build();
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder lockedOutRejections = new LongAdder();
+    private final LongAdder userRejections = new LongAdder();
+    private final LongAdder globalRejections = new LongAdder();
+    private final LongAdder failedLogins = new LongAdder();
+    private final LongAdder lockouts = new LongAdder();
+
+    /**
+     * Rates, bursts and lockout rules. Built with {@link #builder()}; the defaults suit a shared
+     * lab machine.
+     */
+    public static class Policy {
+        private final int userBurst;
+        private final double userAttemptsPerMinute;
+        private final int globalBurst;
+        private final double globalAttemptsPerSecond;
+        private final int lockoutThreshold;
+        private final Duration lockoutDuration;
+        private final Duration maxLockoutDuration;
+
+        private Policy(Builder builder) {
+            this.userBurst = builder.userBurst;
+            this.userAttemptsPerMinute = builder.userAttemptsPerMinute;
+            this.globalBurst = builder.globalBurst;
+            this.globalAttemptsPerSecond = builder.globalAttemptsPerSecond;
+            this.lockoutThreshold = builder.lockoutThreshold;
+            this.lockoutDuration = builder.lockoutDuration;
+            this.maxLockoutDuration = builder.maxLockoutDuration;
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        public int getUserBurst() { return userBurst; }
+        public double getUserAttemptsPerMinute() { return userAttemptsPerMinute; }
+        public int getGlobalBurst() { return globalBurst; }
+        public double getGlobalAttemptsPerSecond() { return globalAttemptsPerSecond; }
+        public int getLockoutThreshold() { return lockoutThreshold; }
+        public Duration getLockoutDuration() { return lockoutDuration; }
+        public Duration getMaxLockoutDuration() { return maxLockoutDuration; }
+
+        @Override
+        public String toString() {
+            return "Policy[user=" + userBurst + " burst, " + userAttemptsPerMinute + "/min"
+                + ", global=" + globalBurst + " burst, " + globalAttemptsPerSecond + "/s"
+                + ", lockout after " + lockoutThreshold + " failures for " + lockoutDuration
+                + " up to " + maxLockoutDuration + "]";
+        }
+
+        /**
+         * Builds a {@link Policy}. By default a username gets 5 attempts at once and 5 more a
+         * minute, all users together 10 at once and 4 a second, and 5 consecutive failures lock
+         * a username out for a minute, doubling with each further 5 up to 30 minutes.
+         */
+        public static class Builder {
+            private int userBurst = 5;
+            private double userAttemptsPerMinute = 5;
+            private int globalBurst = 10;
+            private double globalAttemptsPerSecond = 4;
+            private int lockoutThreshold = 5;
+            private Duration lockoutDuration = Duration.ofMinutes(1);
+            private Duration maxLockoutDuration = Duration.ofMinutes(30);
+
+            private Builder() {
+            }
+
+            /**
+             * @param burst Attempts a username may make at once, 1 to 1000
+             * @param attemptsPerMinute Rate at which a username's attempts are restored
+             */
+            public Builder perUser(int burst, double attemptsPerMinute) {
+                checkBucket(burst, attemptsPerMinute);
+                this.userBurst = burst;
+                this.userAttemptsPerMinute = attemptsPerMinute;
+                return this;
+            }
+
+            /**
+             * @param burst Attempts all users together may make at once, 1 to 1000
+             * @param attemptsPerSecond Rate at which attempts are restored
+             */
+            public Builder global(int burst, double attemptsPerSecond) {
+                checkBucket(burst, attemptsPerSecond);
+                this.globalBurst = burst;
+                this.globalAttemptsPerSecond = attemptsPerSecond;
+                return this;
+            }
+
+            /**
+             * @param threshold Consecutive failures that lock a username out, or 0 to never lock out
+             * @param duration The first lockout; each further threshold's worth of failures doubles it
+             * @param maxDuration The longest lockout
+             */
+            public Builder lockout(int threshold, Duration duration, Duration maxDuration) {
+                if (threshold < 0 || duration.isNegative() || maxDuration.compareTo(duration) < 0) {
+                    throw new IllegalArgumentException("Invalid lockout: " + threshold + " failures, " + duration + " up to " + maxDuration);
+                }
+                this.lockoutThreshold = threshold;
+                this.lockoutDuration = duration;
+                this.maxLockoutDuration = maxDuration;
+                return this;
+            }
+
+            private static void checkBucket(int burst, double rate) {
+                // The token count must fit the bucket's packed state
+                if (burst < 1 || burst > 1000 || !(rate > 0)) {
+                    throw new IllegalArgumentException("Burst must be 1 to 1000 and rate positive: " + burst + ", " + rate);
+                }
+            }
+
+            public Policy build() {
+                return new Policy(this);
+            }
+        }
+    }
+
+    private LoginThrottle() {
+    }
+
+    /**
+     * Gets the singleton instance of LoginThrottle.
+     * @return The LoginThrottle instance
+     */
+    public static synchronized LoginThrottle getInstance() {
+        if (instance == null) {
+            instance = new LoginThrottle();
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the policy. Bucket and lockout state carry over; a smaller burst applies from each
+     * bucket's next refill.
+     */
+    public void configure(Policy policy) {
+        this.policy = policy;
+        LOGGER.info("Login throttle policy: " + policy);
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Admits one login attempt or rejects it. Call before looking up or hashing anything.
+     * @param username The username being tried
+     * @throws SecurityException if the username is locked out or the attempt exceeds a rate limit
+     */
+    public void acquire(String username) {
+        attempts.increment();
+        Policy current = policy;
+        int stripe = stripe(username);
+        long now = now();
+
+        long remaining = lockedUntil.get(stripe) - now;
+        if (remaining > 0) {
+            lockedOutRejections.increment();
+            throw new SecurityException("Too many failed logins; try again in " + ((remaining + 999) / 1000) + " seconds");
+        }
+        if (!tryTake(userBuckets, stripe, now, current.userBurst, current.userAttemptsPerMinute / 60_000.0)) {
+            userRejections.increment();
+            throw new SecurityException("Too many login attempts for this user; please wait a moment");
+        }
+        // A token taken from the user's bucket is not returned if the global bucket is empty
+        if (!tryTake(globalBucket, 0, now, current.globalBurst, current.globalAttemptsPerSecond / 1000.0)) {
+            globalRejections.increment();
+            throw new SecurityException("Too many login attempts; please wait a moment");
+        }
+        allowed.increment();
+    }
+
+    /**
+     * Clears a username's consecutive failures after a successful login.
+     */
+    public void recordSuccess(String username) {
+        failures.set(stripe(username), 0);
+    }
+
+    /**
+     * Counts a failed login, locking the username out once the policy's threshold is reached.
+     */
+    public void recordFailure(String username) {
+        failedLogins.increment();
+        Policy current = policy;
+        int stripe = stripe(username);
+        long count = failures.incrementAndGet(stripe);
+        if (current.lockoutThreshold == 0 || count % current.lockoutThreshold != 0) return;
+
+        long doublings = Math.min(count / current.lockoutThreshold - 1, 30);
+        long millis = Math.min(current.lockoutDuration.toMillis() << doublings, current.maxLockoutDuration.toMillis());
+        long until = now() + millis;
+        lockedUntil.accumulateAndGet(stripe, until, Math::max);
+        lockouts.increment();
+        LOGGER.warning("Locked out login stripe " + stripe + " for " + millis / 1000 + " s after " + count + " failures");
+    }
+
+    /**
+     * @return Milliseconds until a username may try again, or 0 if it is not locked out
+     */
+    public long getLockoutRemainingMillis(String username) {
+        return Math.max(0, lockedUntil.get(stripe(username)) - now());
+    }
+
+    /**
+     * Takes one token if the bucket has one after refilling it for the time since its last update.
+     */
+    private static boolean tryTake(AtomicLongArray buckets, int i, long now, int burst, double tokensPerMilli) {
+        long capacity = burst * TOKEN;
+        while (true) {
+            long state = buckets.get(i);
+            long tokens;
+            if (state == 0) {
+                tokens = capacity;
+            } else {
+                long elapsed = Math.max(0, now - (state >>> TOKEN_BITS));
+                tokens = Math.min(capacity, (state & TOKEN_MASK) + (long) (elapsed * tokensPerMilli * TOKEN));
+            }
+            if (tokens < TOKEN) {
+                // Nothing written, so the refill keeps accruing from the last update
+                return false;
+            }
+            if (buckets.compareAndSet(i, state, (now << TOKEN_BITS) | (tokens - TOKEN))) {
+                return true;
+            }
+        }
+    }
+
+    private static int stripe(String username) {
+        String key = username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+        int hash = key.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * @return Milliseconds since the throttle started, from 1 so a used bucket's state is never 0
+     */
+    private long now() {
+        return (System.nanoTime() - origin) / 1_000_000 + 1;
+    }
+
+    public long getAttemptCount() { return attempts.sum(); }
+    public long getAllowedCount() { return allowed.sum(); }
+    public long getLockedOutCount() { return lockedOutRejections.sum(); }
+    public long getUserLimitedCount() { return userRejections.sum(); }
+    public long getGlobalLimitedCount() { return globalRejections.sum(); }
+    public long getFailureCount() { return failedLogins.sum(); }
+    public long getLockoutCount() { return lockouts.sum(); }
+
+    public long getRejectedCount() {
+        return getLockedOutCount() + getUserLimitedCount() + getGlobalLimitedCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LoginThrottle[attempts=%d, allowed=%d, lockedOut=%d, userLimited=%d, globalLimited=%d, failures=%d, lockouts=%d]",
+            getAttemptCount(), getAllowedCount(), getLockedOutCount(), getUserLimitedCount(),
+            getGlobalLimitedCount(), getFailureCount(), getLockoutCount());
+    }
+}
@@ -20,6 +20,7 @@ public class MainFrame extends JFrame {
     
     private CardLayout cardLayout;
     private JPanel cardPanel;
+    private ViewManager viewManager;
     private User currentUser;
     
     public MainFrame() {
@@ -102,45 +103,29 @@ public class MainFrame extends JFrame {
     }
     
     private void initializePanels() {
-        try {
-            System.out.println("4.1 Creating LoginPanel...");
-            LoginPanel loginPanel = new LoginPanel(this);
-            addView(loginPanel, "LOGIN");
-            System.out.println("4.2 LoginPanel created successfully");
-            
-            System.out.println("4.3 Creating RegisterPanel...");
-            RegisterPanel registerPanel = new RegisterPanel(this);
-            addView(registerPanel, "REGISTER");
-            System.out.println("4.4 RegisterPanel created successfully");
-            
-            System.out.println("4.5 Creating DashboardPanel...");
-            DashboardPanel dashboardPanel = new DashboardPanel(this);
-            addView(dashboardPanel, "DASHBOARD");
-            System.out.println("4.6 DashboardPanel created successfully");
-            
-            System.out.println("4.7 Creating DifficultyPanel...");
-            DifficultyPanel difficultyPanel = new DifficultyPanel(this, null);
-            addView(difficultyPanel, "DIFFICULTY");
-            System.out.println("4.8 DifficultyPanel created successfully");
-            
-            System.out.println("4.9 Creating TypingTestPanel...");
-            TypingTestPanel typingTestPanel = new TypingTestPanel(this, null, "medium", 1);
-            addView(typingTestPanel, "TYPING_TEST");
-            System.out.println("4.10 TypingTestPanel created successfully");
-            
-        } catch (Exception e) {
-            System.err.println("Error in initializePanels: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to initialize panels: " + e.getMessage(), e);
-        }
+        // Views are only registered here; ViewManager builds each one the first time it is shown
+        viewManager = new ViewManager(cardPanel, cardLayout);
+        viewManager.register("LOGIN", () -> new LoginPanel(this));
+        viewManager.register("REGISTER", () -> new RegisterPanel(this));
+        viewManager.register("DASHBOARD", () -> new DashboardPanel(this));
+        viewManager.register("DIFFICULTY", () -> new DifficultyPanel(this, currentUser));
+        viewManager.register("LEVEL_SELECTION", () -> new LevelSelectionPanel(this, "easy"));
+        viewManager.register("TYPING_TEST", () -> new TypingTestPanel(this));
+        viewManager.register("VIEW_HISTORY", () -> new ViewHistory(this, currentUser));
+        viewManager.register("PERFORMANCE", () -> new PerformancePanel(this, currentUser));
     }
     
     public void showView(String name) {
-        cardLayout.show(cardPanel, name);
+        viewManager.show(name);
     }
     
     public void logoutUser() {
         this.currentUser = null;
+        // Drop views holding the previous user's data
+        viewManager.evict("TYPING_TEST");
+        viewManager.evict("VIEW_HISTORY");
+        viewManager.evict("PERFORMANCE");
+        viewManager.evict("DIFFICULTY");
         showView("LOGIN");
     }
     
@@ -153,11 +138,15 @@ public class MainFrame extends JFrame {
         this.currentUser = user;
     }
     
+    public ViewManager getViewManager() {
+        return viewManager;
+    }
+    
     public void showDifficultySelection(User user) {
+        if (user != currentUser) {
+            viewManager.evict("DIFFICULTY");
+        }
         setCurrentUser(user);
-        // Create a new difficulty panel each time to ensure fresh state
-        DifficultyPanel difficultyPanel = new DifficultyPanel(this, currentUser);
-        addView(difficultyPanel, "DIFFICULTY");
         showView("DIFFICULTY");
     }
     
@@ -171,22 +160,20 @@ public class MainFrame extends JFrame {
             return;
         }
         
-        // Create a new level selection panel with the selected difficulty
-        LevelSelectionPanel levelSelectionPanel = new LevelSelectionPanel(this, difficulty);
-        
-        // Remove any existing LEVEL_SELECTION panel to avoid memory leaks
-        for (Component comp : cardPanel.getComponents()) {
-            if (comp instanceof LevelSelectionPanel) {
-                cardPanel.remove(comp);
-            }
-        }
-        
-        // Add the new level selection panel and show it
-        addView(levelSelectionPanel, "LEVEL_SELECTION");
+        // Reuse the level selection panel for the selected difficulty
+        viewManager.get("LEVEL_SELECTION", LevelSelectionPanel.class).setDifficulty(difficulty);
         showView("LEVEL_SELECTION");
     }
     
     public void startTypingTest(String difficulty, int level) {
+        startTypingTest(difficulty, level, null);
+    }
+    
+    /**
+     * Starts a test whose passage is selected by a seed, so it can be repeated exactly.
+     * @param seed The seed, or null for a fresh one each test
+     */
+    public void startTypingTest(String difficulty, int level, Long seed) {
         if (currentUser == null) {
             JOptionPane.showMessageDialog(this,
                 "Please log in to take a typing test.",
@@ -196,17 +183,8 @@ public class MainFrame extends JFrame {
             return;
         }
         
-        // Create a new typing test panel with the selected difficulty and level
-        TypingTestPanel typingTestPanel = new TypingTestPanel(this, currentUser, difficulty, level);
-        
-        // Remove any existing TYPING_TEST panel to avoid memory leaks
-        for (Component comp : cardPanel.getComponents()) {
-            if (comp instanceof TypingTestPanel) {
-                cardPanel.remove(comp);
-            }
-        }
-        
-        addView(typingTestPanel, "TYPING_TEST");
+        // Reuse the typing test panel, resetting it for the selected difficulty and level
+        viewManager.get("TYPING_TEST", TypingTestPanel.class).reset(currentUser, difficulty, level, seed);
         showView("TYPING_TEST");
     }
     
@@ -221,18 +199,11 @@ public class MainFrame extends JFrame {
         }
         
         try {
-            // Create a new history panel with the current user
-            ViewHistory viewHistory = new ViewHistory(this, currentUser);
-            
-            // Remove any existing VIEW_HISTORY panel to avoid memory leaks
-            for (Component comp : cardPanel.getComponents()) {
-                if (comp instanceof ViewHistory) {
-                    cardPanel.remove(comp);
-                }
+            // A history panel is bound to one user; rebuild it if the user changed
+            ViewHistory existing = viewManager.getIfCreated("VIEW_HISTORY", ViewHistory.class);
+            if (existing != null && existing.getUser().getUserId() != currentUser.getUserId()) {
+                viewManager.evict("VIEW_HISTORY");
             }
-            
-            // Add the new history panel and show it
-            addView(viewHistory, "VIEW_HISTORY");
             showView("VIEW_HISTORY");
         } catch (Exception e) {
             System.err.println("Error showing history view: " + e.getMessage());
@@ -258,18 +229,11 @@ public class MainFrame extends JFrame {
         }
         
         try {
-            // Create a new performance panel with the current user
-            PerformancePanel performancePanel = new PerformancePanel(this, currentUser);
-            
-            // Remove any existing PERFORMANCE panel to avoid memory leaks
-            for (Component comp : cardPanel.getComponents()) {
-                if (comp instanceof PerformancePanel) {
-                    cardPanel.remove(comp);
-                }
+            // Reuse the panel for the same user; it only fetches sessions saved since its last refresh
+            PerformancePanel existing = viewManager.getIfCreated("PERFORMANCE", PerformancePanel.class);
+            if (existing != null && existing.getUser().getUserId() != currentUser.getUserId()) {
+                viewManager.evict("PERFORMANCE");
             }
-            
-            // Add the new performance panel and show it
-            addView(performancePanel, "PERFORMANCE");
             showView("PERFORMANCE");
         } catch (Exception e) {
             System.err.println("Error showing performance view: " + e.getMessage());
@@ -0,0 +1,24 @@
+package org.example.view;
+
+/**
+ * Lifecycle hooks for panels whose instances are reused by {@link ViewManager}.
+ */
+public interface ManagedView {
+
+    /**
+     * Called each time the view is shown, after any reset by the caller.
+     */
+    default void onStart() {}
+
+    /**
+     * Called when the user navigates away from the view.
+     * Implementations should stop timers and cancel background work.
+     */
+    default void onStop() {}
+
+    /**
+     * Called once when the view is discarded, after {@link #onStop()}.
+     * Implementations should release subscriptions and other long-lived resources.
+     */
+    default void onDispose() {}
+}
@@ -0,0 +1,140 @@
+package org.example.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over character shingles, for estimating how much two passages overlap.
+ * Text is normalised first (lower case, letters and digits only, whitespace runs collapsed to
+ * one space) so punctuation and spacing changes do not hide a copy. Each shingle is hashed once
+ * and then permuted by {@code numHashes} multiply-shift hash functions; the signature keeps the
+ * minimum of each. The fraction of equal positions in two signatures estimates the Jaccard
+ * similarity of their shingle sets.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public class MinHash {
+    public static final int SHINGLE_LENGTH = 5;
+
+    private final long[] multipliers;
+    private final long[] increments;
+
+    /**
+     * @param numHashes The signature length
+     * @param seed Seeds the hash functions; signatures are only comparable between equal seeds
+     */
+    public MinHash(int numHashes, long seed) {
+        if (numHashes < 1) {
+            throw new IllegalArgumentException("At least one hash function is required: " + numHashes);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        multipliers = new long[numHashes];
+        increments = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            multipliers[i] = random.nextLong() | 1; // odd, so the multiply is a permutation
+            increments[i] = random.nextLong();
+        }
+    }
+
+    public int getNumHashes() {
+        return multipliers.length;
+    }
+
+    /**
+     * Computes a passage's signature.
+     * @param text The passage
+     * @return The signature, or null if the text has no letters or digits
+     */
+    public int[] signature(CharSequence text) {
+        int[] signature = new int[multipliers.length];
+        return signature(text, signature) ? signature : null;
+    }
+
+    /**
+     * Computes a passage's signature into a caller-supplied array.
+     * @param text The passage
+     * @param signature Receives the signature; its length must be {@link #getNumHashes()}
+     * @return False if the text has no letters or digits, leaving the array undefined
+     */
+    public boolean signature(CharSequence text, int[] signature) {
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        // Ring of the last SHINGLE_LENGTH normalised characters
+        char[] window = new char[SHINGLE_LENGTH];
+        int length = 0;
+        boolean pendingSpace = false;
+        int shingles = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = length > 0;
+                continue;
+            }
+            if (!Character.isLetterOrDigit(c)) continue;
+            if (pendingSpace) {
+                length = push(window, length, ' ');
+                if (length >= SHINGLE_LENGTH) {
+                    addShingle(window, length, signature);
+                    shingles++;
+                }
+                pendingSpace = false;
+            }
+            length = push(window, length, Character.toLowerCase(c));
+            if (length >= SHINGLE_LENGTH) {
+                addShingle(window, length, signature);
+                shingles++;
+            }
+        }
+        if (shingles == 0 && length > 0) {
+            // Shorter than one shingle: the whole text is its only shingle
+            addShingle(window, length, signature);
+            shingles++;
+        }
+        return shingles > 0;
+    }
+
+    private static int push(char[] window, int length, char c) {
+        window[length % SHINGLE_LENGTH] = c;
+        return length + 1;
+    }
+
+    private void addShingle(char[] window, int length, int[] signature) {
+        int size = Math.min(length, SHINGLE_LENGTH);
+        long hash = 0;
+        for (int i = length - size; i < length; i++) {
+            hash = hash * 31 + window[i % SHINGLE_LENGTH];
+        }
+        hash = mix(hash);
+        for (int i = 0; i < signature.length; i++) {
+            // Top 31 bits of a multiply-shift hash: non-negative, so plain int comparison works
+            int value = (int) ((hash * multipliers[i] + increments[i]) >>> 33);
+            if (value < signature[i]) {
+                signature[i] = value;
+            }
+        }
+    }
+
+    /**
+     * SplitMix64 finaliser, so similar shingles hash far apart.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two passages from their signatures.
+     * @return The fraction of equal positions, from 0 to 1
+     */
+    public static double similarity(int[] a, int[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Signatures differ in length: " + a.length + " vs " + b.length);
+        }
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) equal++;
+        }
+        return (double) equal / a.length;
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * Locality-sensitive hashing index over {@link MinHash} signatures. Each signature is cut into
+ * {@code bands} bands of {@code rows} values; two passages become candidates when any band is
+ * identical, which happens with probability {@code 1 - (1 - J^rows)^bands} for Jaccard
+ * similarity J. Candidates are then confirmed by comparing the stored signatures against the
+ * threshold, so a band collision alone never rejects a passage.
+ * <p>
+ * Only passages added to the index are remembered: per passage, one 8-byte table slot per band
+ * (up to 16 bytes with table slack) and the low 16 bits of each signature value, independent of
+ * passage length. Not thread-safe; the importer feeds it from one thread.
+ */
+public class NearDuplicateIndex {
+    private final int bands;
+    private final int rows;
+    private final double threshold;
+
+    // Open-addressing table from band key to the first passage with that band. Only the key's high
+    // 32 bits are kept, as a fingerprint that also picks the slot; fingerprint 0 marks an empty slot
+    private int[] fingerprints = new int[1024];
+    private int[] owners = new int[1024];
+    private int used;
+
+    // Low 16 bits of every stored signature value, passage-major; enough to estimate similarity,
+    // since unequal values collide only once in 65536
+    private short[] signatures;
+    private int count;
+
+    private final int[] candidates;
+
+    /**
+     * @param bands The number of bands
+     * @param rows Signature values per band
+     * @param threshold Estimated Jaccard similarity at or above which a passage is a near-duplicate
+     */
+    public NearDuplicateIndex(int bands, int rows, double threshold) {
+        if (bands < 1 || rows < 1) {
+            throw new IllegalArgumentException("Bands and rows must be positive: " + bands + " x " + rows);
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.threshold = threshold;
+        this.signatures = new short[1024 * bands * rows];
+        this.candidates = new int[bands];
+    }
+
+    /**
+     * @return The signature length this index expects
+     */
+    public int getNumHashes() {
+        return bands * rows;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Finds an indexed passage that the signature's passage nearly duplicates.
+     * @param signature The signature
+     * @return The most similar indexed passage at or above the threshold, or -1 if there is none
+     */
+    public int findDuplicate(int[] signature) {
+        checkLength(signature);
+        int candidateCount = 0;
+        int best = -1;
+        double bestSimilarity = threshold;
+        for (int band = 0; band < bands; band++) {
+            int owner = lookup(bandKey(signature, band));
+            if (owner < 0 || contains(candidates, candidateCount, owner)) continue;
+            candidates[candidateCount++] = owner;
+            double similarity = similarity(owner, signature);
+            if (similarity >= bestSimilarity) {
+                best = owner;
+                bestSimilarity = similarity;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Indexes a passage.
+     * @param signature The passage's signature
+     * @return The passage's ID in this index, counting from 0 in insertion order
+     */
+    public int add(int[] signature) {
+        checkLength(signature);
+        int id = count++;
+        int width = bands * rows;
+        if ((long) count * width > signatures.length) {
+            signatures = Arrays.copyOf(signatures, Math.max(count * width, signatures.length * 2));
+        }
+        for (int i = 0; i < width; i++) {
+            signatures[id * width + i] = (short) signature[i];
+        }
+        for (int band = 0; band < bands; band++) {
+            insert(bandKey(signature, band), id);
+        }
+        return id;
+    }
+
+    private double similarity(int id, int[] signature) {
+        int width = bands * rows;
+        int offset = id * width;
+        int equal = 0;
+        for (int i = 0; i < width; i++) {
+            if (signatures[offset + i] == (short) signature[i]) equal++;
+        }
+        return (double) equal / width;
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long hash = band + 1;
+        for (int r = band * rows; r < (band + 1) * rows; r++) {
+            hash = MinHash.mix(hash * 0x9e3779b97f4a7c15L + signature[r]);
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    private static int fingerprint(long key) {
+        int fingerprint = (int) (key >>> 32);
+        return fingerprint != 0 ? fingerprint : 1;
+    }
+
+    private int lookup(long key) {
+        int fingerprint = fingerprint(key);
+        int mask = fingerprints.length - 1;
+        // A fingerprint shared by another key only adds a candidate; the signature check rejects it
+        for (int slot = fingerprint & mask; fingerprints[slot] != 0; slot = (slot + 1) & mask) {
+            if (fingerprints[slot] == fingerprint) return owners[slot];
+        }
+        return -1;
+    }
+
+    private void insert(long key, int owner) {
+        if ((used + 1) * 4L > fingerprints.length * 3L) {
+            grow();
+        }
+        int fingerprint = fingerprint(key);
+        int mask = fingerprints.length - 1;
+        int slot = fingerprint & mask;
+        while (fingerprints[slot] != 0) {
+            // Keep the first passage seen with this band as the one later passages are compared to
+            if (fingerprints[slot] == fingerprint) return;
+            slot = (slot + 1) & mask;
+        }
+        fingerprints[slot] = fingerprint;
+        owners[slot] = owner;
+        used++;
+    }
+
+    private void grow() {
+        int[] oldFingerprints = fingerprints;
+        int[] oldOwners = owners;
+        fingerprints = new int[oldFingerprints.length * 2];
+        owners = new int[oldOwners.length * 2];
+        int mask = fingerprints.length - 1;
+        for (int i = 0; i < oldFingerprints.length; i++) {
+            if (oldFingerprints[i] == 0) continue;
+            int slot = oldFingerprints[i] & mask;
+            while (fingerprints[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            fingerprints[slot] = oldFingerprints[i];
+            owners[slot] = oldOwners[i];
+        }
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private void checkLength(int[] signature) {
+        if (signature.length != bands * rows) {
+            throw new IllegalArgumentException("Expected a signature of " + bands * rows + " values: " + signature.length);
+        }
+    }
+}
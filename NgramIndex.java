@@ -0,0 +1,508 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Inverted index from character n-grams (2 to 4 characters) to the passages containing them, for
+ * finding passages that practise a particular letter combination without scanning every passage.
+ * Grams are taken within words of the lower-cased text, counting letters and digits only, so
+ * "The" and "the," both contain "th" and "he".
+ * <p>
+ * Each gram's passage IDs are stored ascending in blocks of {@link #BLOCK_SIZE}: a skip entry
+ * holds the block's first ID and where its bytes start, and the remaining IDs follow as varint
+ * gaps, usually one byte each. Intersections jump between blocks through the skip entries, so
+ * a rare gram intersected with a common one decodes only the blocks that can match.
+ * <p>
+ * The index can be saved and later memory-mapped; opening reads only the header, and a gram is
+ * found by binary search over the sorted gram directory. Instances are immutable and safe to
+ * share between threads.
+ */
+public class NgramIndex {
+    private static final Logger LOGGER = Logger.getLogger(NgramIndex.class.getName());
+
+    public static final int MIN_GRAM = 2;
+    public static final int MAX_GRAM = 4;
+    public static final int BLOCK_SIZE = 128;
+
+    private static final int MAGIC = 0x54504E31; // "TPN1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int TERM_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int SKIP_BYTES = Integer.BYTES + Integer.BYTES;
+
+    // Layout: magic, version, passageCount, termCount, postingsBytes,
+    // then (gram, passageCount, postingsOffset) by ascending gram, then the postings.
+    // A gram's postings are its skip entries (firstId, dataOffset) followed by its varint gaps
+    private final ByteBuffer data;
+    private final int passageCount;
+    private final int termCount;
+    private final int postingsStart;
+
+    private NgramIndex(ByteBuffer data) throws IOException {
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IOException("Not an n-gram index");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IOException("Unsupported n-gram index version " + data.getInt(4));
+        }
+        this.data = data;
+        this.passageCount = data.getInt(8);
+        this.termCount = data.getInt(12);
+        this.postingsStart = HEADER_BYTES + termCount * TERM_BYTES;
+        if ((long) postingsStart + data.getInt(16) > data.capacity()) {
+            throw new IOException("Truncated n-gram index");
+        }
+    }
+
+    /**
+     * Indexes passages.
+     * @param passages Supplies passage i
+     * @param count The number of passages; IDs run from 0 to count - 1
+     * @return The index
+     */
+    public static NgramIndex build(IntFunction<? extends CharSequence> passages, int count) {
+        long start = System.nanoTime();
+        Builder builder = new Builder();
+        char[] word = new char[64];
+        for (int id = 0; id < count; id++) {
+            CharSequence text = passages.apply(id);
+            int length = 0;
+            for (int i = 0; i <= text.length(); i++) {
+                char c = i < text.length() ? text.charAt(i) : ' ';
+                if (Character.isLetterOrDigit(c)) {
+                    if (length == word.length) {
+                        word = Arrays.copyOf(word, length * 2);
+                    }
+                    word[length++] = Character.toLowerCase(c);
+                    // Every gram ending at this character
+                    long key = 0;
+                    for (int n = 1; n <= Math.min(MAX_GRAM, length); n++) {
+                        key |= (long) word[length - n] << (16 * (n - 1));
+                        if (n >= MIN_GRAM) {
+                            builder.add(key, id);
+                        }
+                    }
+                } else {
+                    length = 0;
+                }
+            }
+        }
+        NgramIndex index = builder.finish(count);
+        LOGGER.info(String.format("Indexed %d-%d grams of %d passages in %.1f ms (%d grams, %d KB)",
+            MIN_GRAM, MAX_GRAM, count, (System.nanoTime() - start) / 1e6, index.termCount,
+            index.data.capacity() / 1024));
+        return index;
+    }
+
+    /**
+     * Collects postings gram by gram, already in their final block encoding, since passages
+     * arrive in ID order.
+     */
+    private static class Builder {
+        // Open-addressing table from gram key to term number; key 0 marks an empty slot
+        private long[] slots = new long[1 << 12];
+        private int[] slotTerms = new int[1 << 12];
+
+        private long[] keys = new long[1024];
+        private int[] counts = new int[1024];
+        private int[] lastIds = new int[1024];
+        private byte[][] gaps = new byte[1024][];
+        private int[] gapLengths = new int[1024];
+        private int[][] skips = new int[1024][];
+        private int terms;
+        private long totalBytes;
+
+        void add(long key, int id) {
+            int term = term(key);
+            if (counts[term] > 0 && lastIds[term] == id) return; // already recorded for this passage
+            int count = counts[term];
+            if (count % BLOCK_SIZE == 0) {
+                int block = count / BLOCK_SIZE;
+                int[] skip = skips[term];
+                if (skip == null) {
+                    skip = skips[term] = new int[2];
+                } else if (block * 2 == skip.length) {
+                    skip = skips[term] = Arrays.copyOf(skip, skip.length * 2);
+                }
+                skip[block * 2] = id;
+                skip[block * 2 + 1] = gapLengths[term];
+                totalBytes += SKIP_BYTES;
+            } else {
+                writeGap(term, id - lastIds[term] - 1);
+            }
+            counts[term] = count + 1;
+            lastIds[term] = id;
+        }
+
+        private void writeGap(int term, int gap) {
+            byte[] bytes = gaps[term];
+            int length = gapLengths[term];
+            if (bytes == null) {
+                bytes = gaps[term] = new byte[8];
+            } else if (length + 5 > bytes.length) {
+                bytes = gaps[term] = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+            }
+            while ((gap & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            bytes[length++] = (byte) gap;
+            totalBytes += length - gapLengths[term];
+            gapLengths[term] = length;
+        }
+
+        private int term(long key) {
+            int mask = slots.length - 1;
+            int slot = (int) MinHash.mix(key) & mask;
+            while (slots[slot] != 0) {
+                if (slots[slot] == key) return slotTerms[slot];
+                slot = (slot + 1) & mask;
+            }
+            int term = terms++;
+            if (term == keys.length) {
+                keys = Arrays.copyOf(keys, term * 2);
+                counts = Arrays.copyOf(counts, term * 2);
+                lastIds = Arrays.copyOf(lastIds, term * 2);
+                gaps = Arrays.copyOf(gaps, term * 2);
+                gapLengths = Arrays.copyOf(gapLengths, term * 2);
+                skips = Arrays.copyOf(skips, term * 2);
+            }
+            keys[term] = key;
+            slots[slot] = key;
+            slotTerms[slot] = term;
+            if (terms * 4L > slots.length * 3L) {
+                grow();
+            }
+            return term;
+        }
+
+        private void grow() {
+            long[] oldSlots = slots;
+            int[] oldTerms = slotTerms;
+            slots = new long[oldSlots.length * 2];
+            slotTerms = new int[oldTerms.length * 2];
+            int mask = slots.length - 1;
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] == 0) continue;
+                int slot = (int) MinHash.mix(oldSlots[i]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = oldSlots[i];
+                slotTerms[slot] = oldTerms[i];
+            }
+        }
+
+        NgramIndex finish(int passageCount) {
+            if (totalBytes > Integer.MAX_VALUE - HEADER_BYTES - (long) terms * TERM_BYTES) {
+                throw new IllegalStateException("N-gram index larger than 2 GB");
+            }
+            Integer[] order = new Integer[terms];
+            for (int i = 0; i < terms; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong(term -> keys[term]));
+
+            ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + terms * TERM_BYTES + (int) totalBytes);
+            data.putInt(MAGIC).putInt(VERSION).putInt(passageCount).putInt(terms).putInt((int) totalBytes);
+            int offset = 0;
+            for (int term : order) {
+                data.putLong(keys[term]).putInt(counts[term]).putInt(offset);
+                offset += blocks(counts[term]) * SKIP_BYTES + gapLengths[term];
+            }
+            for (int term : order) {
+                int[] skip = skips[term];
+                for (int block = 0; block < blocks(counts[term]); block++) {
+                    data.putInt(skip[block * 2]).putInt(skip[block * 2 + 1]);
+                }
+                data.put(gaps[term] != null ? gaps[term] : new byte[0], 0, gapLengths[term]);
+            }
+            data.clear();
+            try {
+                return new NgramIndex(data);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static int blocks(int count) {
+        return (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    /**
+     * Maps a saved index.
+     * @param file The index file
+     * @return The index
+     * @throws IOException if the file cannot be read or is not an n-gram index
+     */
+    public static NgramIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("N-gram index larger than 2 GB: " + file);
+            }
+            return new NgramIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the index so it can be reopened with {@link #open(Path)}.
+     * @param file The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            Channels.newChannel(out).write(data.duplicate().clear());
+        }
+    }
+
+    /**
+     * @return The number of passages indexed, including those too short to contain any gram
+     */
+    public int getPassageCount() { return passageCount; }
+
+    /**
+     * @return The number of distinct grams
+     */
+    public int getGramCount() { return termCount; }
+
+    /**
+     * Packs a gram into the key it is indexed under: up to four UTF-16 units, 16 bits each.
+     * @param gram 2 to 4 letters or digits, in any case
+     * @throws IllegalArgumentException if the gram is the wrong length or has other characters
+     */
+    static long key(CharSequence gram) {
+        if (gram.length() < MIN_GRAM || gram.length() > MAX_GRAM) {
+            throw new IllegalArgumentException("Grams must be " + MIN_GRAM + " to " + MAX_GRAM + " characters: " + gram);
+        }
+        long key = 0;
+        for (int i = 0; i < gram.length(); i++) {
+            char c = gram.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                throw new IllegalArgumentException("Grams may contain only letters and digits: " + gram);
+            }
+            key = key << 16 | Character.toLowerCase(c);
+        }
+        return key;
+    }
+
+    /**
+     * @return The directory position of a gram's key, or -1 if no passage contains it
+     */
+    private int findTerm(long key) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = data.getLong(HEADER_BYTES + middle * TERM_BYTES);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param gram 2 to 4 letters or digits, in any case
+     * @return The number of passages containing the gram
+     */
+    public int getPassageCount(CharSequence gram) {
+        int term = findTerm(key(gram));
+        return term < 0 ? 0 : data.getInt(HEADER_BYTES + term * TERM_BYTES + Long.BYTES);
+    }
+
+    /**
+     * Opens a cursor over the passages containing a gram.
+     * @param gram 2 to 4 letters or digits, in any case
+     * @return The cursor, positioned before the first passage
+     */
+    public Postings postings(CharSequence gram) {
+        int term = findTerm(key(gram));
+        if (term < 0) {
+            return new Postings(data, 0, 0);
+        }
+        int entry = HEADER_BYTES + term * TERM_BYTES;
+        int count = data.getInt(entry + Long.BYTES);
+        int start = postingsStart + data.getInt(entry + Long.BYTES + Integer.BYTES);
+        return new Postings(data, count, start);
+    }
+
+    /**
+     * Finds the passages containing every given gram.
+     * @param grams One or more grams of 2 to 4 letters or digits, in any case
+     * @return The passage IDs, ascending
+     */
+    public int[] find(CharSequence... grams) {
+        if (grams.length == 0) {
+            throw new IllegalArgumentException("At least one gram is required");
+        }
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings(grams[i]);
+        }
+        // Lead with the rarest gram so the others are only probed at its passages
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+        int[] result = new int[lists[0].size()];
+        int found = 0;
+
+        int candidate = lists[0].next();
+        candidates:
+        while (candidate != Postings.END) {
+            for (int i = 1; i < lists.length; i++) {
+                int id = lists[i].advance(candidate);
+                if (id != candidate) {
+                    // The other list skipped past the candidate; catch the lead up to it
+                    candidate = id == Postings.END ? Postings.END : lists[0].advance(id);
+                    continue candidates;
+                }
+            }
+            result[found++] = candidate;
+            candidate = lists[0].next();
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    /**
+     * A forward-only cursor over one gram's passage IDs. Not thread-safe; each caller opens its own.
+     */
+    public static class Postings {
+        /** Returned once the cursor is past the last passage. */
+        public static final int END = Integer.MAX_VALUE;
+
+        private final ByteBuffer data;
+        private final int count;
+        private final int blocks;
+        private final int skipStart;
+        private final int gapStart;
+
+        private int position = -1; // index of the current ID among the gram's passages
+        private int current = -1;
+        private int offset;        // absolute offset of the next gap to decode
+
+        private Postings(ByteBuffer data, int count, int start) {
+            this.data = data;
+            this.count = count;
+            this.blocks = blocks(count);
+            this.skipStart = start;
+            this.gapStart = start + blocks * SKIP_BYTES;
+        }
+
+        /**
+         * @return The number of passages containing the gram
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Moves to the next passage.
+         * @return Its ID, or {@link #END}
+         */
+        public int next() {
+            if (current == END || ++position >= count) {
+                return current = END;
+            }
+            if (position % BLOCK_SIZE == 0) {
+                enterBlock(position / BLOCK_SIZE);
+            } else {
+                current += readGap() + 1;
+            }
+            return current;
+        }
+
+        /**
+         * Moves to the first passage at or after a target ID, skipping whole blocks that end
+         * before it. Does not move backwards.
+         * @return The passage ID, or {@link #END}
+         */
+        public int advance(int target) {
+            if (current >= target) return current;
+            // Last block starting at or before the target, searched among the blocks ahead
+            int block = Math.max(position, 0) / BLOCK_SIZE;
+            int low = block + 1;
+            int high = blocks - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (data.getInt(skipStart + middle * SKIP_BYTES) <= target) {
+                    block = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            if (position < 0 || block > position / BLOCK_SIZE) {
+                position = block * BLOCK_SIZE;
+                enterBlock(block);
+            }
+            while (current < target) {
+                next();
+            }
+            return current;
+        }
+
+        private void enterBlock(int block) {
+            int skip = skipStart + block * SKIP_BYTES;
+            current = data.getInt(skip);
+            offset = gapStart + data.getInt(skip + Integer.BYTES);
+        }
+
+        private int readGap() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data.get(offset++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Indexes a corpus written by {@link CorpusStore.Writer} and saves it as {@code <base>.ngrams},
+     * where {@link TextSamples} picks it up. With grams after the base, also lists how many
+     * passages contain them all.
+     *
+     * Usage: NgramIndex corpusBase [gram...]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: NgramIndex <corpusBase> [gram...]");
+            System.exit(1);
+        }
+        Path base = Path.of(args[0]);
+        CorpusStore corpus = CorpusStore.open(base);
+        Path file = CorpusStore.ngramsPath(base);
+        build(i -> StandardCharsets.UTF_8.decode(corpus.getPassageBytes(i)), corpus.getPassageCount()).save(file);
+
+        long start = System.nanoTime();
+        NgramIndex index = open(file);
+        System.out.println(String.format("%d grams over %d passages, %d KB; opened in %.2f ms",
+            index.getGramCount(), index.getPassageCount(), Files.size(file) / 1024,
+            (System.nanoTime() - start) / 1e6));
+        if (args.length > 1) {
+            String[] grams = Arrays.copyOfRange(args, 1, args.length);
+            start = System.nanoTime();
+            int[] ids = index.find(grams);
+            System.out.println(String.format("%d passages contain %s (%.2f ms)",
+                ids.length, String.join(", ", grams), (System.nanoTime() - start) / 1e6));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.model;
+
+/**
+ * A typing passage stored in the PASSAGES table.
+ */
+public class Passage {
+    private String difficulty;
+    private int level;
+    private String content;
+
+    public Passage() {}
+
+    public Passage(String difficulty, int level, String content) {
+        this.difficulty = difficulty;
+        this.level = level;
+        this.content = content;
+    }
+
+    public String getDifficulty() { return difficulty; }
+    public void setDifficulty(String difficulty) { this.difficulty = difficulty; }
+
+    public int getLevel() { return level; }
+    public void setLevel(int level) { this.level = level; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+
+    @Override
+    public String toString() {
+        return "Passage{" + difficulty + " level " + level + ", " + content.length() + " chars}";
+    }
+}
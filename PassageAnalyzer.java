@@ -0,0 +1,226 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Scores how hard a passage is to type, so difficulty and level can be assigned from the text
+ * itself rather than from which list a passage was put in. A score combines:
+ * <ul>
+ *   <li>character rarity - mean surprisal of each character under English letter frequencies,
+ *       with extra cost for shifted characters, digits and symbols</li>
+ *   <li>bigram transition cost - mean cost of moving between consecutive keys on a QWERTY keyboard
+ *       (same-finger jumps cost most, alternating hands least)</li>
+ *   <li>average word length</li>
+ *   <li>punctuation density - share of characters that are punctuation or symbols</li>
+ * </ul>
+ */
+public class PassageAnalyzer {
+    private static final Logger LOGGER = Logger.getLogger(PassageAnalyzer.class.getName());
+
+    private static final float RARITY_WEIGHT = 1.0f;
+    private static final float TRANSITION_WEIGHT = 1.5f;
+    private static final float WORD_LENGTH_WEIGHT = 0.5f;
+    private static final float PUNCTUATION_WEIGHT = 20.0f;
+
+    // Passages scored per fork/join leaf task
+    private static final int LEAF_SIZE = 256;
+
+    // English letter frequencies (%) for a-z
+    private static final double[] LETTER_FREQUENCY = {
+        8.2, 1.5, 2.8, 4.3, 12.7, 2.2, 2.0, 6.1, 7.0, 0.15, 0.8, 4.0, 2.4,
+        6.7, 7.5, 1.9, 0.1, 6.0, 6.3, 9.1, 2.8, 1.0, 2.4, 0.15, 2.0, 0.07
+    };
+    private static final float SHIFT_COST = 1.0f;
+    private static final float DIGIT_RARITY = 7.0f;
+    private static final float SYMBOL_RARITY = 8.0f;
+    private static final float NON_ASCII_RARITY = 10.0f;
+
+    private static final String[] KEY_ROWS = {"1234567890", "qwertyuiop", "asdfghjkl;", "zxcvbnm,./"};
+    // Finger for each key column: 0-3 left little..index, 4-7 right index..little
+    private static final int[] COLUMN_FINGER = {0, 1, 2, 3, 3, 4, 4, 5, 6, 7};
+
+    private static final float[] RARITY = new float[128];
+    private static final float[][] TRANSITION = new float[128][128];
+
+    static {
+        for (int c = 0; c < 128; c++) {
+            if (c >= 'a' && c <= 'z') {
+                RARITY[c] = (float) -log2(LETTER_FREQUENCY[c - 'a'] / 100.0);
+            } else if (c >= 'A' && c <= 'Z') {
+                RARITY[c] = (float) -log2(LETTER_FREQUENCY[c - 'A'] / 100.0) + SHIFT_COST;
+            } else if (c >= '0' && c <= '9') {
+                RARITY[c] = DIGIT_RARITY;
+            } else {
+                RARITY[c] = SYMBOL_RARITY;
+            }
+        }
+
+        int[] row = new int[128];
+        int[] finger = new int[128];
+        Arrays.fill(row, -1);
+        for (int r = 0; r < KEY_ROWS.length; r++) {
+            for (int col = 0; col < KEY_ROWS[r].length(); col++) {
+                char key = KEY_ROWS[r].charAt(col);
+                row[key] = r;
+                finger[key] = COLUMN_FINGER[col];
+                if (key >= 'a' && key <= 'z') {
+                    row[Character.toUpperCase(key)] = r;
+                    finger[Character.toUpperCase(key)] = COLUMN_FINGER[col];
+                }
+            }
+        }
+        for (int a = 0; a < 128; a++) {
+            for (int b = 0; b < 128; b++) {
+                TRANSITION[a][b] = transitionCost(a, b, row, finger);
+            }
+        }
+    }
+
+    private static float transitionCost(int a, int b, int[] row, int[] finger) {
+        if (row[a] < 0 || row[b] < 0) return 1.0f;
+        if (Character.toLowerCase(a) == Character.toLowerCase(b)) return 0.5f;
+        int rowDistance = Math.abs(row[a] - row[b]);
+        boolean sameHand = (finger[a] < 4) == (finger[b] < 4);
+        if (finger[a] == finger[b]) return 2.0f + rowDistance;
+        if (sameHand) return 1.0f + 0.5f * rowDistance;
+        return 0.5f;
+    }
+
+    private static double log2(double x) {
+        return Math.log(x) / Math.log(2);
+    }
+
+    /**
+     * Scores one passage. Higher is harder; the result is never negative.
+     * @param text The passage
+     * @return The difficulty score
+     */
+    public static float score(CharSequence text) {
+        float rarity = 0;
+        float transition = 0;
+        int characters = 0;
+        int transitions = 0;
+        int punctuation = 0;
+        int words = 0;
+        int wordCharacters = 0;
+        char previous = ' ';
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                previous = ' ';
+                continue;
+            }
+            characters++;
+            rarity += c < 128 ? RARITY[c] : NON_ASCII_RARITY;
+            if (!Character.isLetterOrDigit(c)) {
+                punctuation++;
+            } else {
+                wordCharacters++;
+            }
+            if (previous == ' ') {
+                words++;
+            } else {
+                transition += previous < 128 && c < 128 ? TRANSITION[previous][c] : 1.0f;
+                transitions++;
+            }
+            previous = c;
+        }
+        if (characters == 0) return 0;
+
+        return RARITY_WEIGHT * rarity / characters
+            + TRANSITION_WEIGHT * (transitions == 0 ? 0 : transition / transitions)
+            + WORD_LENGTH_WEIGHT * wordCharacters / Math.max(1, words)
+            + PUNCTUATION_WEIGHT * punctuation / characters;
+    }
+
+    /**
+     * Scores many passages in parallel using fork/join.
+     * @param passages Supplies passage i; called concurrently, so it must be thread-safe
+     * @param count The number of passages
+     * @param pool The pool to run on
+     * @return The score of each passage, indexed by passage number
+     */
+    public static float[] scoreAll(IntFunction<? extends CharSequence> passages, int count, ForkJoinPool pool) {
+        float[] scores = new float[count];
+        pool.invoke(new ScoreTask(passages, scores, 0, count));
+        return scores;
+    }
+
+    /**
+     * Scores passages [from, to), splitting in half until a range is small enough to score directly.
+     * Each task writes a disjoint slice of the result array, so no synchronisation is needed.
+     */
+    private static class ScoreTask extends RecursiveAction {
+        private final IntFunction<? extends CharSequence> passages;
+        private final float[] scores;
+        private final int from;
+        private final int to;
+
+        ScoreTask(IntFunction<? extends CharSequence> passages, float[] scores, int from, int to) {
+            this.passages = passages;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    scores[i] = score(passages.apply(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreTask(passages, scores, from, middle), new ScoreTask(passages, scores, middle, to));
+        }
+    }
+
+    /**
+     * Scores every passage and builds a difficulty/level band index over them.
+     * @param passages Supplies passage i; must be thread-safe
+     * @param count The number of passages
+     * @return The index
+     */
+    public static PassageIndex buildIndex(IntFunction<? extends CharSequence> passages, int count) {
+        long start = System.nanoTime();
+        float[] scores = scoreAll(passages, count, ForkJoinPool.commonPool());
+        PassageIndex index = PassageIndex.build(scores, PassageIndex.BAND_COUNT);
+        LOGGER.info(String.format("Scored and indexed %d passages in %.1f ms",
+            count, (System.nanoTime() - start) / 1e6));
+        return index;
+    }
+
+    /**
+     * Scores a corpus written by {@link CorpusStore.Writer} and saves its index as {@code <base>.scores},
+     * where {@link TextSamples} picks it up.
+     *
+     * Usage: PassageAnalyzer corpusBase
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: PassageAnalyzer <corpusBase>");
+            System.exit(1);
+        }
+        Path base = Path.of(args[0]);
+        CorpusStore corpus = CorpusStore.open(base);
+        PassageIndex index = buildIndex(
+            i -> StandardCharsets.UTF_8.decode(corpus.getPassageBytes(i)), corpus.getPassageCount());
+        index.save(CorpusStore.scoresPath(base));
+        for (int band = 0; band < index.getBandCount(); band++) {
+            int size = index.getBandSize(band);
+            if (size == 0) continue;
+            System.out.println(String.format("%-6s level %d: %d passages, scores %.2f - %.2f",
+                PassageIndex.DIFFICULTIES[band / PassageIndex.LEVELS], band % PassageIndex.LEVELS + 1, size,
+                index.getScore(band, 0), index.getScore(band, size - 1)));
+        }
+    }
+}
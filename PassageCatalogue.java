@@ -0,0 +1,303 @@
+package org.example.service;
+
+import org.example.database.DatabaseManager;
+import org.example.model.Passage;
+import org.example.util.NgramIndex;
+import org.example.util.PassageIndex;
+import org.example.util.TextSamples;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One in-memory view of every passage source: the built-in samples from {@link TextSamples} and
+ * the rows of the PASSAGES table. Both are loaded once into an immutable snapshot of arrays
+ * indexed by difficulty and level, so lookups and random selection are O(1) and lock-free.
+ * Saving a passage swaps in a new snapshot (copy-on-write); readers never see a partial update.
+ * <p>
+ * When an external corpus is configured, random selection for levels 1-3 still goes to
+ * {@link TextSamples}, which reads it memory-mapped rather than copying it onto the heap.
+ */
+public class PassageCatalogue {
+    private static final Logger LOGGER = Logger.getLogger(PassageCatalogue.class.getName());
+    private static PassageCatalogue instance;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong corpusReads = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private volatile long lastReloadNanos;
+
+    /**
+     * Passages indexed [difficulty][level - 1], in {@link PassageIndex#DIFFICULTIES} order.
+     */
+    private static class Snapshot {
+        final String[][] stored;     // the PASSAGES row for each slot, or null
+        final String[][][] pool;     // built-in samples for the slot's band plus the stored passage
+        final String[] storedList;   // the non-null stored passages, as IDs for the n-gram index
+        private volatile NgramIndex storedGrams;
+
+        Snapshot(String[][] stored, String[][][] pool) {
+            this.stored = stored;
+            this.pool = pool;
+            this.storedList = Arrays.stream(stored).flatMap(Arrays::stream)
+                .filter(passage -> passage != null).toArray(String[]::new);
+        }
+
+        /**
+         * Indexes the stored passages on first use. They are few, so this takes microseconds;
+         * two threads racing build equal indexes.
+         */
+        NgramIndex storedGrams() {
+            NgramIndex index = storedGrams;
+            if (index == null) {
+                index = NgramIndex.build(i -> storedList[i], storedList.length);
+                storedGrams = index;
+            }
+            return index;
+        }
+    }
+
+    private PassageCatalogue() {}
+
+    /**
+     * Gets the shared catalogue. Passages are loaded on first use.
+     * @return The PassageCatalogue instance
+     */
+    public static synchronized PassageCatalogue getInstance() {
+        if (instance == null) {
+            instance = new PassageCatalogue();
+        }
+        return instance;
+    }
+
+    /**
+     * Picks a random passage for a difficulty and level in constant time.
+     * @param difficulty "easy", "medium" or "hard" in any case
+     * @param level The level within the difficulty
+     * @return The passage, or null if there is none for that level
+     * @throws IllegalArgumentException for an unknown difficulty or a level below 1
+     */
+    public String getRandomPassage(String difficulty, int level) {
+        return select(difficulty, level, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Gets the passage a seed selects for a difficulty and level. The same seed always selects
+     * the same passage as long as the passages themselves are unchanged.
+     * @param difficulty "easy", "medium" or "hard" in any case
+     * @param level The level within the difficulty
+     * @param seed The seed
+     * @return The passage, or null if there is none for that level
+     * @throws IllegalArgumentException for an unknown difficulty or a level below 1
+     */
+    public String getRandomPassage(String difficulty, int level, long seed) {
+        return select(difficulty, level, new Random(seed));
+    }
+
+    private String select(String difficulty, int level, Random random) {
+        int d = difficultyIndex(difficulty);
+        checkLevel(difficulty, level);
+        if (level <= PassageIndex.LEVELS && TextSamples.hasCorpus()) {
+            corpusReads.incrementAndGet();
+            return TextSamples.getTextByLevel(difficulty, level, random);
+        }
+        String[][] slots = current().pool[d];
+        String[] passages = level <= slots.length ? slots[level - 1] : null;
+        if (passages == null || passages.length == 0) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return passages[random.nextInt(passages.length)];
+    }
+
+    /**
+     * Picks a random passage containing every given letter combination, for targeted practice.
+     * Every passage is equally likely, whether it comes from the corpus or built-in samples
+     * (through {@link TextSamples#findTextContaining}) or from the PASSAGES table, whose rows are
+     * indexed here so a saved passage is found without rebuilding the corpus index.
+     * @param random The random source; a seeded one makes the selection reproducible
+     * @param grams One or more combinations of 2 to 4 letters or digits, in any case
+     * @return The passage, or null if no passage contains them all
+     * @throws IllegalArgumentException if a combination is not 2 to 4 letters or digits
+     */
+    public String getPassageContaining(Random random, String... grams) {
+        Snapshot current = current();
+        int[] stored = current.storedGrams().find(grams);
+        int[] indexed = TextSamples.findTextContaining(grams);
+        int total = indexed.length + stored.length;
+        if (total == 0) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        int pick = random.nextInt(total);
+        return pick < indexed.length
+            ? TextSamples.getIndexedText(indexed[pick])
+            : current.storedList[stored[pick - indexed.length]];
+    }
+
+    /**
+     * Gets the passage stored in the PASSAGES table for a difficulty and level.
+     * @param difficulty "easy", "medium" or "hard" in any case
+     * @param level The level within the difficulty
+     * @return The passage content, or null if none is stored
+     * @throws IllegalArgumentException for an unknown difficulty or a level below 1
+     */
+    public String getStoredPassage(String difficulty, int level) {
+        int d = difficultyIndex(difficulty);
+        checkLevel(difficulty, level);
+        String[] slots = current().stored[d];
+        String passage = level <= slots.length ? slots[level - 1] : null;
+        if (passage == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return passage;
+    }
+
+    /**
+     * Write-through hook for a passage just saved to the PASSAGES table. Replaces that one slot
+     * without querying the database. Does nothing until the catalogue has first been loaded.
+     * @param difficulty The difficulty, in any case
+     * @param level The level within the difficulty
+     * @param content The new passage content
+     */
+    public synchronized void passageSaved(String difficulty, int level, String content) {
+        Snapshot current = snapshot;
+        if (current == null) return;
+        int d = indexOf(difficulty);
+        if (d < 0 || level < 1) {
+            LOGGER.fine("Passage for " + difficulty + " level " + level + " is outside the catalogue");
+            return;
+        }
+        String[][] stored = current.stored.clone();
+        stored[d] = Arrays.copyOf(stored[d], Math.max(stored[d].length, level));
+        stored[d][level - 1] = content;
+        snapshot = assemble(stored);
+        updates.incrementAndGet();
+    }
+
+    /**
+     * Reloads every source, replacing the current snapshot. If the database cannot be read, the
+     * previously loaded stored passages are kept.
+     */
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        String[][] stored;
+        try {
+            stored = index(DatabaseManager.getInstance().getAllPassages());
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Could not load stored passages; keeping the previous catalogue", e);
+            stored = snapshot != null ? snapshot.stored : index(List.of());
+        }
+        snapshot = assemble(stored);
+        reloads.incrementAndGet();
+        lastReloadNanos = System.nanoTime() - start;
+        LOGGER.info(String.format("Loaded passage catalogue in %.1f ms", lastReloadNanos / 1e6));
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static String[][] index(List<Passage> passages) {
+        String[][] stored = new String[PassageIndex.DIFFICULTIES.length][PassageIndex.LEVELS];
+        for (Passage passage : passages) {
+            int d = indexOf(passage.getDifficulty());
+            int level = passage.getLevel();
+            if (d < 0 || level < 1) {
+                LOGGER.warning("Ignoring stored passage with unknown difficulty or level: " + passage);
+                continue;
+            }
+            if (level > stored[d].length) {
+                stored[d] = Arrays.copyOf(stored[d], level);
+            }
+            stored[d][level - 1] = passage.getContent();
+        }
+        return stored;
+    }
+
+    private static Snapshot assemble(String[][] stored) {
+        String[][][] pool = new String[stored.length][][];
+        for (int d = 0; d < stored.length; d++) {
+            pool[d] = new String[stored[d].length][];
+            for (int l = 0; l < stored[d].length; l++) {
+                String[] builtIn = l < PassageIndex.LEVELS
+                    ? TextSamples.getBuiltInPassages(PassageIndex.DIFFICULTIES[d], l + 1)
+                    : new String[0];
+                if (stored[d][l] == null) {
+                    pool[d][l] = builtIn;
+                } else {
+                    pool[d][l] = Arrays.copyOf(builtIn, builtIn.length + 1);
+                    pool[d][l][builtIn.length] = stored[d][l];
+                }
+            }
+        }
+        return new Snapshot(stored, pool);
+    }
+
+    private static int indexOf(String difficulty) {
+        for (int i = 0; i < PassageIndex.DIFFICULTIES.length; i++) {
+            if (PassageIndex.DIFFICULTIES[i].equalsIgnoreCase(difficulty)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int difficultyIndex(String difficulty) {
+        int d = indexOf(difficulty);
+        if (d < 0) {
+            throw new IllegalArgumentException("Invalid difficulty: " + difficulty);
+        }
+        return d;
+    }
+
+    private static void checkLevel(String difficulty, int level) {
+        if (level < 1) {
+            throw new IllegalArgumentException("Invalid level for " + difficulty.toLowerCase() + " difficulty: " + level);
+        }
+    }
+
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getCorpusReadCount() { return corpusReads.get(); }
+    public long getReloadCount() { return reloads.get(); }
+    public long getUpdateCount() { return updates.get(); }
+    public long getLastReloadNanos() { return lastReloadNanos; }
+
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PassageCatalogue[hits=%d, misses=%d, corpusReads=%d, reloads=%d, updates=%d, " +
+                "lastReload=%.1fms, hitRate=%.1f%%]",
+            getHitCount(), getMissCount(), getCorpusReadCount(), getReloadCount(), getUpdateCount(),
+            getLastReloadNanos() / 1e6, getHitRate() * 100);
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.service;
+
+/**
+ * Published after the passage for a difficulty and level has been saved or replaced.
+ */
+public class PassageChangedEvent {
+    private final String difficulty;
+    private final int level;
+
+    public PassageChangedEvent(String difficulty, int level) {
+        this.difficulty = difficulty;
+        this.level = level;
+    }
+
+    public String getDifficulty() { return difficulty; }
+    public int getLevel() { return level; }
+}
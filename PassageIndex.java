@@ -0,0 +1,170 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Passages ordered by difficulty score and split into equal-sized score bands, one band per
+ * difficulty and level (EASY 1 is the lowest-scoring band, HARD 3 the highest).
+ * Picking a passage from a band is O(1). The index can be saved and later memory-mapped, so
+ * opening it does not depend on how many passages it covers.
+ */
+public class PassageIndex {
+    public static final String[] DIFFICULTIES = {"EASY", "MEDIUM", "HARD"};
+    public static final int LEVELS = 3;
+    public static final int BAND_COUNT = DIFFICULTIES.length * LEVELS;
+
+    private static final int MAGIC = 0x54505331; // "TPS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = Integer.BYTES + Float.BYTES;
+
+    // Layout: magic, version, count, bandCount, bandStarts[bandCount + 1], then (passageId, score) by ascending score
+    private final ByteBuffer data;
+    private final int count;
+    private final int bandCount;
+    private final int entriesStart;
+
+    private PassageIndex(ByteBuffer data) throws IOException {
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not a passage score index");
+        }
+        this.data = data;
+        this.count = data.getInt(8);
+        this.bandCount = data.getInt(12);
+        this.entriesStart = HEADER_BYTES + (bandCount + 1) * Integer.BYTES;
+        if ((long) entriesStart + (long) count * ENTRY_BYTES > data.capacity()) {
+            throw new IOException("Truncated passage score index");
+        }
+    }
+
+    /**
+     * Builds an index from passage scores.
+     * @param scores The score of each passage, indexed by passage ID; scores must not be negative
+     * @param bandCount The number of equal-sized bands to split the passages into
+     * @return The index
+     */
+    public static PassageIndex build(float[] scores, int bandCount) {
+        // Non-negative floats order the same as their bit patterns, so (score, id) packs into one sortable long
+        long[] keys = new long[scores.length];
+        for (int id = 0; id < scores.length; id++) {
+            if (!(scores[id] >= 0)) {
+                throw new IllegalArgumentException("Scores must be non-negative: passage " + id + " = " + scores[id]);
+            }
+            keys[id] = ((long) Float.floatToIntBits(scores[id]) << 32) | id;
+        }
+        Arrays.parallelSort(keys);
+
+        ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + (bandCount + 1) * Integer.BYTES + keys.length * ENTRY_BYTES);
+        data.putInt(MAGIC).putInt(VERSION).putInt(keys.length).putInt(bandCount);
+        for (int band = 0; band <= bandCount; band++) {
+            data.putInt((int) ((long) keys.length * band / bandCount));
+        }
+        for (long key : keys) {
+            data.putInt((int) key);
+            data.putFloat(Float.intBitsToFloat((int) (key >>> 32)));
+        }
+        data.clear();
+        try {
+            return new PassageIndex(data);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Maps a saved index.
+     * @param file The index file
+     * @return The index
+     * @throws IOException if the file cannot be read or is not a score index
+     */
+    public static PassageIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Passage score index larger than 2 GB: " + file);
+            }
+            return new PassageIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the index so it can be reopened with {@link #open(Path)}.
+     * @param file The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            Channels.newChannel(out).write(data.duplicate().clear());
+        }
+    }
+
+    /**
+     * Gets the band for a difficulty and level.
+     * @param difficulty "easy", "medium" or "hard" in any case
+     * @param level 1 to {@link #LEVELS}
+     * @return The band number
+     * @throws IllegalArgumentException for an unknown difficulty or level
+     */
+    public static int band(String difficulty, int level) {
+        if (level < 1 || level > LEVELS) {
+            throw new IllegalArgumentException("Invalid level for " + difficulty.toLowerCase() + " difficulty: " + level);
+        }
+        for (int i = 0; i < DIFFICULTIES.length; i++) {
+            if (DIFFICULTIES[i].equalsIgnoreCase(difficulty)) {
+                return i * LEVELS + (level - 1);
+            }
+        }
+        throw new IllegalArgumentException("Invalid difficulty: " + difficulty);
+    }
+
+    public int getCount() { return count; }
+    public int getBandCount() { return bandCount; }
+
+    public int getBandSize(int band) {
+        return bandStart(band + 1) - bandStart(band);
+    }
+
+    /**
+     * @param band The band
+     * @param i Position within the band, lowest score first
+     * @return The passage ID
+     */
+    public int getPassageId(int band, int i) {
+        return data.getInt(entry(band, i));
+    }
+
+    public float getScore(int band, int i) {
+        return data.getFloat(entry(band, i) + Integer.BYTES);
+    }
+
+    /**
+     * Picks a passage from a band in constant time.
+     * @return The passage ID, or -1 if the band is empty
+     */
+    public int randomPassageId(int band, Random random) {
+        int size = getBandSize(band);
+        return size == 0 ? -1 : getPassageId(band, random.nextInt(size));
+    }
+
+    private int bandStart(int band) {
+        if (band < 0 || band > bandCount) {
+            throw new IndexOutOfBoundsException("No band " + band);
+        }
+        return data.getInt(HEADER_BYTES + band * Integer.BYTES);
+    }
+
+    private int entry(int band, int i) {
+        if (i < 0 || i >= getBandSize(band)) {
+            throw new IndexOutOfBoundsException("No passage " + i + " in band " + band);
+        }
+        return entriesStart + (bandStart(band) + i) * ENTRY_BYTES;
+    }
+}
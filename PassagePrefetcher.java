@@ -0,0 +1,138 @@
+package org.example.service;
+
+import org.example.util.PassageIndex;
+import org.example.util.PreparedPassage;
+import org.example.util.TextSamples;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prepares the next passage for each level of a difficulty on a background thread, so starting
+ * a test only has to take a ready {@link PreparedPassage}. Each difficulty and level holds at
+ * most one prepared passage; taking it schedules a replacement. Prepared passages for a slot
+ * are dropped when that slot's stored passage changes; each slot counts its changes, and a
+ * prepare that a change overtook discards its result. Every passage is selected by a fresh
+ * seed, recorded on the prepared passage, so any test can be repeated exactly.
+ */
+public class PassagePrefetcher {
+    private static final Logger LOGGER = Logger.getLogger(PassagePrefetcher.class.getName());
+    private static PassagePrefetcher instance;
+
+    private final Map<String, PreparedPassage> ready = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> pending = new ConcurrentHashMap<>();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private PassagePrefetcher() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "passage-prefetch");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        EventBus.getInstance().subscribe(PassageChangedEvent.class, event -> {
+            String key = key(event.getDifficulty(), event.getLevel());
+            // Bump the version before removing, so a prepare storing in between sees the change
+            versions.merge(key, 1L, Long::sum);
+            ready.remove(key);
+        });
+    }
+
+    /**
+     * Gets the singleton instance of PassagePrefetcher.
+     * @return The PassagePrefetcher instance
+     */
+    public static synchronized PassagePrefetcher getInstance() {
+        if (instance == null) {
+            instance = new PassagePrefetcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Prepares a passage in the background for every level of a difficulty that has none ready.
+     * Returns immediately.
+     * @param difficulty "easy", "medium" or "hard" in any case
+     */
+    public void prefetch(String difficulty) {
+        for (int level = 1; level <= PassageIndex.LEVELS; level++) {
+            schedule(difficulty, level);
+        }
+    }
+
+    /**
+     * Takes the prepared passage for a difficulty and level, preparing it now if none is ready,
+     * and schedules the next one.
+     * @param difficulty "easy", "medium" or "hard" in any case
+     * @param level The level within the difficulty
+     * @return The passage, or null if the catalogue has none for that level
+     */
+    public PreparedPassage take(String difficulty, int level) {
+        PreparedPassage passage = ready.remove(key(difficulty, level));
+        if (passage != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            passage = prepare(difficulty, level, TextSamples.newSeed());
+        }
+        schedule(difficulty, level);
+        return passage;
+    }
+
+    private void schedule(String difficulty, int level) {
+        String key = key(difficulty, level);
+        if (ready.containsKey(key) || pending.putIfAbsent(key, Boolean.TRUE) != null) return;
+        executor.execute(() -> {
+            try {
+                long version = version(key);
+                PreparedPassage passage = prepare(difficulty, level, TextSamples.newSeed());
+                if (passage != null && ready.putIfAbsent(key, passage) == null && version(key) != version) {
+                    // The slot's passage changed while preparing; this one may be stale
+                    ready.remove(key, passage);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not prefetch passage for " + key, e);
+            } finally {
+                pending.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Prepares the passage a seed selects, on the calling thread. Seeded requests bypass the
+     * prefetched passages, which were selected by seeds of their own.
+     * @param difficulty "easy", "medium" or "hard" in any case
+     * @param level The level within the difficulty
+     * @param seed The seed
+     * @return The passage, or null if the catalogue has none for that level
+     */
+    public static PreparedPassage prepare(String difficulty, int level, long seed) {
+        String text = PassageCatalogue.getInstance().getRandomPassage(difficulty, level, seed);
+        return text != null ? PreparedPassage.prepare(text, seed) : null;
+    }
+
+    private long version(String key) {
+        return versions.getOrDefault(key, 0L);
+    }
+
+    private static String key(String difficulty, int level) {
+        return difficulty.toUpperCase() + ":" + level;
+    }
+
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("PassagePrefetcher[ready=%d, hits=%d, misses=%d]", ready.size(), getHitCount(), getMissCount());
+    }
+}
@@ -1,28 +1,67 @@
 src/main/java/org/example/view/panels/PerformancePanel.java
 package org.example.view.panels;
 
-import org.example.model.TestSession;
+import org.example.database.DatabaseManager;
+import org.example.model.SessionColumns;
+import org.example.model.TrendState;
+import org.example.model.User;
+import org.example.model.UserStatistics;
+import org.example.service.EventBus;
+import org.example.service.SessionSavedEvent;
 import org.example.service.StatisticsService;
+import org.example.util.Downsampler;
+import org.example.view.MainFrame;
+import org.example.view.ManagedView;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.Range;
 import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
-public class PerformancePanel extends JPanel {
-    private final List<TestSession> userSessions;
-    private final JLabel avgWpmLabel;
-    private final JLabel bestWpmLabel;
-    private final JLabel avgAccuracyLabel;
-    private final JLabel totalTestsLabel;
-    private final JPanel chartPanel;
+public class PerformancePanel extends JPanel implements ManagedView {
+    private static final Logger LOGGER = Logger.getLogger(PerformancePanel.class.getName());
+    private static final int DEFAULT_POINT_BUDGET = 800;
 
-    public PerformancePanel(List<TestSession> userSessions) {
-        this.userSessions = userSessions;
+    private final MainFrame parent;
+    private final User currentUser;
+    private UserStatistics statistics = new UserStatistics();
+    private JLabel avgWpmLabel;
+    private JLabel bestWpmLabel;
+    private JLabel avgAccuracyLabel;
+    private JLabel totalTestsLabel;
+    private JLabel emaLabel;
+    private JLabel trendLabel;
+    private final DefaultCategoryDataset difficultyDataset = new DefaultCategoryDataset();
+    private final DefaultCategoryDataset levelDataset = new DefaultCategoryDataset();
+    private SwingWorker<UserStatistics, Void> loadWorker;
+    private int lastSessionId;
+    private boolean refreshPending;
+    private final EventBus.Subscription sessionSubscription;
+
+    // Progress chart state: the full history sorted by date, re-sampled on zoom
+    private final XYSeries progressSeries = new XYSeries("WPM", false, true);
+    private JFreeChart progressChart;
+    private ChartPanel progressChartPanel;
+    private double[] progressTimes = new double[0];
+    private double[] progressWpm = new double[0];
+    private Range sampledRange;
+    private SwingWorker<int[], Void> resampleWorker;
+
+    public PerformancePanel(MainFrame parent, User user) {
+        this.parent = parent;
+        this.currentUser = user;
         setLayout(new BorderLayout(10, 10));
         setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
@@ -31,26 +70,65 @@ public class PerformancePanel extends JPanel {
         add(statsPanel, BorderLayout.NORTH);
 
         // Chart Panel
-        chartPanel = new JPanel(new BorderLayout());
-        updateCharts();
-        add(new JScrollPane(chartPanel), BorderLayout.CENTER);
+        add(new JScrollPane(createChartsPanel()), BorderLayout.CENTER);
+
+        // Back button
+        JButton backButton = new JButton("Back to Dashboard");
+        backButton.addActionListener(e -> parent.showView("DASHBOARD"));
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        buttonPanel.add(backButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        // Fold new sessions into the charts as they are saved, so returning here needs no reload
+        sessionSubscription = EventBus.getInstance().subscribeOnEdt(SessionSavedEvent.class, event -> {
+            if (event.getUserId() == currentUser.getUserId()) {
+                refresh();
+            }
+        });
+    }
+
+    @Override
+    public void onStart() {
+        refresh();
+    }
+
+    @Override
+    public void onStop() {
+        if (resampleWorker != null) {
+            resampleWorker.cancel(false);
+        }
+    }
+
+    @Override
+    public void onDispose() {
+        sessionSubscription.unsubscribe();
+        if (loadWorker != null) {
+            loadWorker.cancel(false);
+        }
+    }
+
+    public User getUser() {
+        return currentUser;
     }
 
     private JPanel createStatsPanel() {
-        JPanel panel = new JPanel(new GridLayout(2, 2, 10, 10));
+        JPanel panel = new JPanel(new GridLayout(3, 2, 10, 10));
         panel.setBorder(BorderFactory.createTitledBorder("Performance Summary"));
 
         avgWpmLabel = createStatLabel("Average WPM: 0.0");
         bestWpmLabel = createStatLabel("Best WPM: 0.0");
         avgAccuracyLabel = createStatLabel("Average Accuracy: 0.0%");
         totalTestsLabel = createStatLabel("Total Tests: 0");
+        emaLabel = createStatLabel("Recent WPM / Accuracy: -");
+        trendLabel = createStatLabel("Trend: -");
 
         panel.add(avgWpmLabel);
         panel.add(bestWpmLabel);
         panel.add(avgAccuracyLabel);
         panel.add(totalTestsLabel);
+        panel.add(emaLabel);
+        panel.add(trendLabel);
 
-        updateStats();
         return panel;
     }
 
@@ -61,13 +139,96 @@ public class PerformancePanel extends JPanel {
         return label;
     }
 
+    /**
+     * Brings the panel up to date with the database.
+     * The first call loads the full history; later calls fetch only sessions saved since the
+     * last refresh and fold them into the existing charts.
+     */
+    public void refresh() {
+        if (loadWorker != null && !loadWorker.isDone()) {
+            // Run again once the current load finishes so sessions saved meanwhile are picked up
+            refreshPending = true;
+            return;
+        }
+        refreshPending = false;
+
+        int afterSessionId = lastSessionId;
+        double[] currentTimes = progressTimes;
+        double[] currentWpm = progressWpm;
+        loadWorker = new SwingWorker<>() {
+            private double[] times;
+            private double[] wpm;
+            private int[] sampled;
+            private TrendState trend;
+            private int newestSessionId;
+
+            @Override
+            protected UserStatistics doInBackground() throws Exception {
+                UserStatistics userStatistics = StatisticsService.getUserStatistics(currentUser.getUserId());
+                trend = StatisticsService.getTrend(currentUser.getUserId());
+                SessionColumns delta = DatabaseManager.getInstance()
+                    .getUserSessionColumns(currentUser.getUserId(), afterSessionId);
+
+                // Append the new sessions (already chronological) to the downsampler's input
+                int base = currentTimes.length;
+                times = Arrays.copyOf(currentTimes, base + delta.size());
+                wpm = Arrays.copyOf(currentWpm, base + delta.size());
+                newestSessionId = afterSessionId;
+                for (int i = 0; i < delta.size(); i++) {
+                    times[base + i] = delta.getTestDate(i);
+                    wpm[base + i] = delta.getWpm(i);
+                    newestSessionId = Math.max(newestSessionId, delta.getSessionId(i));
+                }
+                if (delta.size() > 0) {
+                    sampled = Downsampler.largestTriangleThreeBuckets(times, wpm, 0, times.length, DEFAULT_POINT_BUDGET);
+                }
+                return userStatistics;
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    statistics = get();
+                    updateStats();
+                    updateTrend(trend);
+                    updateCharts();
+                    if (sampled != null) {
+                        progressTimes = times;
+                        progressWpm = wpm;
+                        lastSessionId = newestSessionId;
+                        ValueAxis domainAxis = progressChart.getXYPlot().getDomainAxis();
+                        domainAxis.setDefaultAutoRange(fullRange(times));
+                        if (domainAxis.isAutoRange()) {
+                            applyProgressPoints(times, wpm, sampled, fullRange(times));
+                        } else {
+                            // Keep the user's zoom and re-sample just the visible window
+                            sampledRange = null;
+                            resampleVisibleRange(domainAxis.getRange());
+                        }
+                    }
+                } catch (Exception e) {
+                    LOGGER.log(Level.SEVERE, "Failed to load performance data", e);
+                    JOptionPane.showMessageDialog(PerformancePanel.this,
+                        "Error loading performance data: " + e.getMessage(),
+                        "Database Error",
+                        JOptionPane.ERROR_MESSAGE);
+                }
+                if (refreshPending) {
+                    refresh();
+                }
+            }
+        };
+        loadWorker.execute();
+    }
+
     private void updateStats() {
-        if (userSessions == null || userSessions.isEmpty()) return;
+        if (statistics == null || statistics.getTotalTests() == 0) return;
 
-        double avgWpm = StatisticsService.calculateAverageWPM(userSessions);
-        double bestWpm = StatisticsService.calculateBestWPM(userSessions);
-        double avgAccuracy = StatisticsService.calculateAverageAccuracy(userSessions);
-        int totalTests = StatisticsService.calculateTotalTests(userSessions);
+        double avgWpm = statistics.getAverageWpm();
+        double bestWpm = statistics.getBestWpm();
+        double avgAccuracy = statistics.getAverageAccuracy();
+        int totalTests = statistics.getTotalTests();
 
         avgWpmLabel.setText(String.format("Average WPM: %.1f", avgWpm));
         bestWpmLabel.setText(String.format("Best WPM: %.1f", bestWpm));
@@ -75,42 +236,150 @@ public class PerformancePanel extends JPanel {
         totalTestsLabel.setText(String.format("Total Tests: %d", totalTests));
     }
 
-    private void updateCharts() {
-        chartPanel.removeAll();
-        
-        // Create a panel with two charts side by side
-        JPanel chartsPanel = new JPanel(new GridLayout(1, 2, 10, 10));
-        
-        // WPM by Difficulty Chart
-        JFreeChart difficultyChart = createChart(
-            "Average WPM by Difficulty", 
-            StatisticsService.getAverageWPMByDifficulty(userSessions)
-        );
-        chartsPanel.add(new ChartPanel(difficultyChart));
-        
-        // WPM by Level Chart
-        JFreeChart levelChart = createChart(
-            "Average WPM by Level", 
-            StatisticsService.getAverageWPMByLevel(userSessions).entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                    e -> "Level " + e.getKey(), 
-                    Map.Entry::getValue
-                ))
-        );
-        chartsPanel.add(new ChartPanel(levelChart));
-        
-        chartPanel.add(chartsPanel, BorderLayout.CENTER);
-        chartPanel.revalidate();
-        chartPanel.repaint();
+    private void updateTrend(TrendState trend) {
+        if (trend == null || trend.getSessionCount() == 0) return;
+
+        emaLabel.setText(String.format("Recent WPM / Accuracy: %.1f / %.1f%%",
+            trend.getEmaWpm(), trend.getEmaAccuracy()));
+        trendLabel.setText(String.format("Trend: %+.2f WPM/test (%s)",
+            trend.getSlope(), StatisticsService.describeTrend(trend)));
+    }
+
+    /**
+     * Builds the charts once; later data changes only update their datasets.
+     * Chart panels render into an off-screen buffer that is reused until the chart
+     * changes or the panel is resized.
+     */
+    private JPanel createChartsPanel() {
+        // Progress over time on top, averages side by side below
+        JPanel chartsPanel = new JPanel(new GridLayout(2, 1, 10, 10));
+        progressChart = createProgressChart();
+        progressChartPanel = new ChartPanel(progressChart, true);
+        chartsPanel.add(progressChartPanel);
+
+        JPanel averagesPanel = new JPanel(new GridLayout(1, 2, 10, 10));
+        averagesPanel.add(new ChartPanel(createChart("Average WPM by Difficulty", difficultyDataset), true));
+        averagesPanel.add(new ChartPanel(createChart("Average WPM by Level", levelDataset), true));
+        chartsPanel.add(averagesPanel);
+        return chartsPanel;
     }
 
-    private JFreeChart createChart(String title, Map<String, Double> data) {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        data.forEach((key, value) -> 
-            dataset.addValue(value, "WPM", key)
+    private JFreeChart createProgressChart() {
+        JFreeChart chart = ChartFactory.createTimeSeriesChart(
+            "WPM Over Time",
+            "Date",
+            "Words Per Minute (WPM)",
+            new XYSeriesCollection(progressSeries),
+            false,
+            true,
+            false
         );
 
+        // Zooming changes the domain range; re-sample the visible window at screen resolution.
+        // Auto range follows the series, which after a zoom holds only the zoomed window, so
+        // restoring it re-samples the full history for the axis to fit
+        ValueAxis domainAxis = chart.getXYPlot().getDomainAxis();
+        domainAxis.addChangeListener(event -> resampleVisibleRange(
+            domainAxis.isAutoRange() ? fullRange(progressTimes) : domainAxis.getRange()));
+        return chart;
+    }
+
+    private void updateCharts() {
+        updateDataset(difficultyDataset, statistics.getAverageWpmByDifficulty());
+        updateDataset(levelDataset, statistics.getAverageWpmByLevel().entrySet()
+            .stream()
+            .collect(Collectors.toMap(
+                e -> "Level " + e.getKey(),
+                Map.Entry::getValue
+            )));
+    }
+
+    /**
+     * Applies changed values with notifications suspended, so the chart redraws once per update.
+     * Unchanged data fires no event, leaving the cached chart image valid.
+     */
+    private void updateDataset(DefaultCategoryDataset dataset, Map<String, Double> values) {
+        Map<String, Double> changed = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            int column = dataset.getColumnIndex(key);
+            Number current = column >= 0 ? dataset.getValue(0, column) : null;
+            if (current == null || current.doubleValue() != value) {
+                changed.put(key, value);
+            }
+        });
+        if (changed.isEmpty()) return;
+
+        dataset.setNotify(false);
+        changed.forEach((key, value) -> dataset.setValue(value, "WPM", key));
+        dataset.setNotify(true);
+    }
+
+    /**
+     * Re-runs the downsampling for the given domain range off the EDT.
+     */
+    private void resampleVisibleRange(Range range) {
+        if (range == null || range.equals(sampledRange) || progressTimes.length == 0) return;
+        sampledRange = range;
+
+        if (resampleWorker != null) {
+            resampleWorker.cancel(false);
+        }
+
+        double[] times = progressTimes;
+        double[] wpm = progressWpm;
+        int budget = pointBudget();
+        resampleWorker = new SwingWorker<>() {
+            @Override
+            protected int[] doInBackground() {
+                // Include one point either side so lines run to the plot edges
+                int from = Math.max(0, insertionPoint(times, range.getLowerBound()) - 1);
+                int to = Math.min(times.length, insertionPoint(times, range.getUpperBound()) + 1);
+                return Downsampler.largestTriangleThreeBuckets(times, wpm, from, to, budget);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    applyProgressPoints(times, wpm, get(), range);
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Failed to resample progress chart", e);
+                }
+            }
+        };
+        resampleWorker.execute();
+    }
+
+    private void applyProgressPoints(double[] times, double[] wpm, int[] indices, Range range) {
+        if (indices == null) return;
+        // Set first: the series change re-fits an auto-ranged axis, which must not re-sample again
+        sampledRange = range;
+        progressSeries.setNotify(false);
+        progressSeries.clear();
+        for (int index : indices) {
+            progressSeries.add(times[index], wpm[index], false);
+        }
+        progressSeries.setNotify(true);
+    }
+
+    /**
+     * @return The range of the whole history, or null if there is none
+     */
+    private static Range fullRange(double[] times) {
+        return times.length == 0 ? null : new Range(times[0], times[times.length - 1]);
+    }
+
+    private int pointBudget() {
+        int width = progressChartPanel != null ? progressChartPanel.getWidth() : 0;
+        return width > 0 ? width : DEFAULT_POINT_BUDGET;
+    }
+
+    private static int insertionPoint(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private JFreeChart createChart(String title, DefaultCategoryDataset dataset) {
         return ChartFactory.createBarChart(
             title,
             "Category",
@@ -122,4 +391,4 @@ public class PerformancePanel extends JPanel {
             false
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package org.example.util;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A passage ready for a typing test: chunked with word and character offsets precomputed (see
+ * {@link ChunkedText}), with the number of characters to type (whitespace excluded), and with
+ * the seed that selected it. Built in linear time without regular expressions, so it can be
+ * prepared off the EDT and handed over ready to display, even for chapter-length passages.
+ * Immutable and safe to share between threads.
+ */
+public class PreparedPassage {
+    private final ChunkedText text;
+    private final long seed;
+
+    private PreparedPassage(ChunkedText text, long seed) {
+        this.text = text;
+        this.seed = seed;
+    }
+
+    /**
+     * Tokenizes a passage on whitespace.
+     * @param text The passage
+     * @param seed The seed that selected or generated the passage, so the test can be repeated
+     * @return The prepared passage
+     */
+    public static PreparedPassage prepare(String text, long seed) {
+        return new PreparedPassage(ChunkedText.of(text), seed);
+    }
+
+    public String getText() { return text.getText(); }
+    public long getSeed() { return seed; }
+
+    /**
+     * @return The passage with its chunk, word and character offsets
+     */
+    public ChunkedText getChunks() { return text; }
+
+    /**
+     * @return The number of non-whitespace characters
+     */
+    public int getCharacterCount() { return text.getCharacterCount(); }
+
+    public int getWordCount() { return text.getWordCount(); }
+
+    /**
+     * @return Offset of word i's first character in the text
+     */
+    public int getWordStart(int i) { return text.wordStart(i); }
+
+    /**
+     * @return Offset just past word i's last character
+     */
+    public int getWordEnd(int i) { return text.wordEnd(i); }
+
+    public String getWord(int i) {
+        int start = text.wordStart(i);
+        return text.substring(start, text.wordEnd(i));
+    }
+
+    /**
+     * Finds the word containing or following a text offset.
+     * @param offset An offset into the text
+     * @return The word index, or {@link #getWordCount()} if the offset is past the last word
+     */
+    public int wordAt(int offset) {
+        return text.wordAt(offset);
+    }
+
+    /**
+     * @return The words as an unmodifiable list, each substring created on access
+     */
+    public List<String> getWords() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return getWord(index);
+            }
+
+            @Override
+            public int size() {
+                return getWordCount();
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.view;
+
+import org.example.database.HistoryQuery;
+
+import javax.swing.*;
+import javax.swing.table.TableModel;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Row sorter that leaves rows in model order and turns header clicks into a database sort.
+ * The table header still shows the usual sort arrow; the owner re-queries when the sort changes.
+ */
+public class QuerySorter extends RowSorter<TableModel> {
+    private final TableModel model;
+    private final HistoryQuery.SortColumn[] columns;
+    private final Runnable onSortChanged;
+    private List<SortKey> sortKeys;
+
+    /**
+     * @param model The table model
+     * @param columns The sort column for each model column, or null where a column can't be sorted
+     * @param onSortChanged Called on the EDT after a header click changes the sort
+     */
+    public QuerySorter(TableModel model, HistoryQuery.SortColumn[] columns, Runnable onSortChanged) {
+        this.model = model;
+        this.columns = columns.clone();
+        this.onSortChanged = onSortChanged;
+        this.sortKeys = Collections.emptyList();
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] == HistoryQuery.SortColumn.DATE) {
+                sortKeys = List.of(new SortKey(i, SortOrder.DESCENDING));
+            }
+        }
+    }
+
+    public HistoryQuery.SortColumn getSortColumn() {
+        return sortKeys.isEmpty() ? HistoryQuery.SortColumn.DATE : columns[sortKeys.get(0).getColumn()];
+    }
+
+    public boolean isAscending() {
+        return !sortKeys.isEmpty() && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING;
+    }
+
+    @Override
+    public TableModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        if (column < 0 || column >= columns.length || columns[column] == null) return;
+        SortOrder order = SortOrder.DESCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                && sortKeys.get(0).getSortOrder() == SortOrder.DESCENDING) {
+            order = SortOrder.ASCENDING;
+        }
+        setSortKeys(List.of(new SortKey(column, order)));
+        onSortChanged.run();
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        sortKeys = keys == null ? Collections.emptyList() : List.copyOf(keys);
+        fireSortOrderChanged();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    // Rows arrive already sorted, so view and model indices are the same
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        return index;
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        return index;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {}
+
+    @Override
+    public void allRowsChanged() {}
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {}
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {}
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {}
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {}
+}
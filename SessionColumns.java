@@ -0,0 +1,199 @@
+package org.example.model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented, read-only snapshot of test sessions for analytics.
+ * Each field is a parallel primitive array; difficulty and level are dictionary-encoded
+ * so filtering and grouping are plain loops over small codes.
+ */
+public class SessionColumns {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int size;
+    private final int[] sessionIds;
+    private final double[] wpm;
+    private final double[] accuracy;
+    private final int[] errors;
+    private final int[] timeTaken;
+    private final long[] testDates; // epoch millis, 0 if unknown
+    private final byte[] difficultyCodes;
+    private final String[] difficultyDictionary;
+    private final byte[] levelCodes;
+    private final int[] levelDictionary;
+
+    private SessionColumns(int size, int[] sessionIds, double[] wpm, double[] accuracy, int[] errors,
+                           int[] timeTaken, long[] testDates, byte[] difficultyCodes,
+                           String[] difficultyDictionary, byte[] levelCodes, int[] levelDictionary) {
+        this.size = size;
+        this.sessionIds = sessionIds;
+        this.wpm = wpm;
+        this.accuracy = accuracy;
+        this.errors = errors;
+        this.timeTaken = timeTaken;
+        this.testDates = testDates;
+        this.difficultyCodes = difficultyCodes;
+        this.difficultyDictionary = difficultyDictionary;
+        this.levelCodes = levelCodes;
+        this.levelDictionary = levelDictionary;
+    }
+
+    /**
+     * Builds a snapshot directly from a result set over TEST_SESSION.
+     * Reads the columns sessionId, difficulty, level, timeTaken, wpm, accuracy, errors and testDate.
+     * @param rs The result set, positioned before the first row
+     * @return The snapshot
+     * @throws SQLException if a database error occurs
+     */
+    public static SessionColumns fromResultSet(ResultSet rs) throws SQLException {
+        int capacity = INITIAL_CAPACITY;
+        int count = 0;
+        int[] sessionIds = new int[capacity];
+        double[] wpm = new double[capacity];
+        double[] accuracy = new double[capacity];
+        int[] errors = new int[capacity];
+        int[] timeTaken = new int[capacity];
+        long[] testDates = new long[capacity];
+        byte[] difficultyCodes = new byte[capacity];
+        byte[] levelCodes = new byte[capacity];
+        Map<String, Integer> difficulties = new HashMap<>();
+        Map<Integer, Integer> levels = new HashMap<>();
+
+        while (rs.next()) {
+            if (count == capacity) {
+                capacity *= 2;
+                sessionIds = Arrays.copyOf(sessionIds, capacity);
+                wpm = Arrays.copyOf(wpm, capacity);
+                accuracy = Arrays.copyOf(accuracy, capacity);
+                errors = Arrays.copyOf(errors, capacity);
+                timeTaken = Arrays.copyOf(timeTaken, capacity);
+                testDates = Arrays.copyOf(testDates, capacity);
+                difficultyCodes = Arrays.copyOf(difficultyCodes, capacity);
+                levelCodes = Arrays.copyOf(levelCodes, capacity);
+            }
+            sessionIds[count] = rs.getInt("sessionId");
+            wpm[count] = rs.getDouble("wpm");
+            accuracy[count] = rs.getDouble("accuracy");
+            errors[count] = rs.getInt("errors");
+            timeTaken[count] = rs.getInt("timeTaken");
+            Timestamp testDate = rs.getTimestamp("testDate");
+            testDates[count] = testDate != null ? testDate.getTime() : 0L;
+
+            String difficulty = rs.getString("difficulty");
+            difficulty = difficulty != null ? difficulty.toUpperCase() : "";
+            difficultyCodes[count] = encode(difficulties, difficulty);
+            levelCodes[count] = encode(levels, rs.getInt("level"));
+            count++;
+        }
+
+        String[] difficultyDictionary = new String[difficulties.size()];
+        difficulties.forEach((value, code) -> difficultyDictionary[code] = value);
+        int[] levelDictionary = new int[levels.size()];
+        levels.forEach((value, code) -> levelDictionary[code] = value);
+
+        return new SessionColumns(count, sessionIds, wpm, accuracy, errors, timeTaken, testDates,
+            difficultyCodes, difficultyDictionary, levelCodes, levelDictionary);
+    }
+
+    private static <T> byte encode(Map<T, Integer> dictionary, T value) {
+        Integer code = dictionary.get(value);
+        if (code == null) {
+            if (dictionary.size() > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct values to dictionary-encode: " + value);
+            }
+            code = dictionary.size();
+            dictionary.put(value, code);
+        }
+        return code.byteValue();
+    }
+
+    /**
+     * Gets the rows matching the given codes.
+     * @param difficultyCode A difficulty code, or -1 for any
+     * @param levelCode A level code, or -1 for any
+     * @return The matching row indices, in order
+     */
+    public int[] select(int difficultyCode, int levelCode) {
+        int[] selection = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if ((difficultyCode < 0 || difficultyCodes[i] == difficultyCode)
+                    && (levelCode < 0 || levelCodes[i] == levelCode)) {
+                selection[count++] = i;
+            }
+        }
+        return Arrays.copyOf(selection, count);
+    }
+
+    /**
+     * Gets a new snapshot holding only the given rows.
+     * @param rows Row indices, as returned by {@link #select}
+     * @return The filtered snapshot, sharing this snapshot's dictionaries
+     */
+    public SessionColumns gather(int[] rows) {
+        int n = rows.length;
+        int[] ids = new int[n];
+        double[] w = new double[n];
+        double[] a = new double[n];
+        int[] e = new int[n];
+        int[] t = new int[n];
+        long[] d = new long[n];
+        byte[] dc = new byte[n];
+        byte[] lc = new byte[n];
+        for (int i = 0; i < n; i++) {
+            int row = rows[i];
+            ids[i] = sessionIds[row];
+            w[i] = wpm[row];
+            a[i] = accuracy[row];
+            e[i] = errors[row];
+            t[i] = timeTaken[row];
+            d[i] = testDates[row];
+            dc[i] = difficultyCodes[row];
+            lc[i] = levelCodes[row];
+        }
+        return new SessionColumns(n, ids, w, a, e, t, d, dc, difficultyDictionary, lc, levelDictionary);
+    }
+
+    /**
+     * Gets the code for a difficulty, ignoring case.
+     * @return The code, or -1 if no row has that difficulty
+     */
+    public int difficultyCode(String difficulty) {
+        for (int i = 0; i < difficultyDictionary.length; i++) {
+            if (difficultyDictionary[i].equalsIgnoreCase(difficulty)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the code for a level.
+     * @return The code, or -1 if no row has that level
+     */
+    public int levelCode(int level) {
+        for (int i = 0; i < levelDictionary.length; i++) {
+            if (levelDictionary[i] == level) return i;
+        }
+        return -1;
+    }
+
+    public int size() { return size; }
+    public int getSessionId(int row) { return sessionIds[row]; }
+    public double getWpm(int row) { return wpm[row]; }
+    public double getAccuracy(int row) { return accuracy[row]; }
+    public int getErrors(int row) { return errors[row]; }
+    public int getTimeTaken(int row) { return timeTaken[row]; }
+    public long getTestDate(int row) { return testDates[row]; }
+    public int getDifficultyCode(int row) { return difficultyCodes[row]; }
+    public String getDifficulty(int row) { return difficultyDictionary[difficultyCodes[row]]; }
+    public int getLevelCode(int row) { return levelCodes[row]; }
+    public int getLevel(int row) { return levelDictionary[levelCodes[row]]; }
+    public int getDifficultyCount() { return difficultyDictionary.length; }
+    public String getDifficultyForCode(int code) { return difficultyDictionary[code]; }
+    public int getLevelCount() { return levelDictionary.length; }
+    public int getLevelForCode(int code) { return levelDictionary[code]; }
+}
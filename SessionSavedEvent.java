@@ -0,0 +1,17 @@
+package org.example.service;
+
+import org.example.model.TestSession;
+
+/**
+ * Published after a test session has been committed, with its ID and test date set.
+ */
+public class SessionSavedEvent {
+    private final TestSession session;
+
+    public SessionSavedEvent(TestSession session) {
+        this.session = session;
+    }
+
+    public TestSession getSession() { return session; }
+    public int getUserId() { return session.getUserId(); }
+}
@@ -0,0 +1,136 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Records the phases of application startup so time-to-first-frame can be tracked across releases.
+ * Times are reported in milliseconds since JVM start; phases may run on different threads.
+ */
+public class StartupTimeline {
+    private static final StartupTimeline INSTANCE = new StartupTimeline();
+
+    private final long originNanos = System.nanoTime();
+    private final long originUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * One timed phase. A mark is a phase with zero duration.
+     */
+    public static class Phase {
+        private final String name;
+        private final String thread;
+        private final double startMillis;
+        private final double endMillis;
+
+        Phase(String name, String thread, double startMillis, double endMillis) {
+            this.name = name;
+            this.thread = thread;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+
+        public String getName() { return name; }
+        public String getThread() { return thread; }
+        public double getStartMillis() { return startMillis; }
+        public double getEndMillis() { return endMillis; }
+        public double getDurationMillis() { return endMillis - startMillis; }
+    }
+
+    public static StartupTimeline getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs and records a phase.
+     * @param name The phase name
+     * @param work The work to run
+     */
+    public void run(String name, Runnable work) {
+        call(name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs and records a phase that produces a value.
+     * The phase is recorded even if the work throws.
+     * @param name The phase name
+     * @param work The work to run
+     * @return The value produced by the work
+     */
+    public <T> T call(String name, Supplier<T> work) {
+        double start = now();
+        try {
+            return work.get();
+        } finally {
+            record(name, start, now());
+        }
+    }
+
+    /**
+     * Records a point in time, such as the first frame becoming visible.
+     * @param name The event name
+     */
+    public void mark(String name) {
+        double time = now();
+        record(name, time, time);
+    }
+
+    private synchronized void record(String name, double start, double end) {
+        phases.add(new Phase(name, Thread.currentThread().getName(), start, end));
+    }
+
+    private double now() {
+        return originUptimeMillis + (System.nanoTime() - originNanos) / 1e6;
+    }
+
+    /**
+     * Gets the recorded phases ordered by start time.
+     */
+    public synchronized List<Phase> getPhases() {
+        List<Phase> sorted = new ArrayList<>(phases);
+        sorted.sort(Comparator.comparingDouble(Phase::getStartMillis));
+        return sorted;
+    }
+
+    /**
+     * Prints the timeline as a table.
+     * @param out The stream to print to
+     */
+    public void print(PrintStream out) {
+        out.println("Startup timeline (ms since JVM start):");
+        out.println(String.format("  %-24s %10s %10s %10s  %s", "Phase", "Start", "End", "Duration", "Thread"));
+        for (Phase phase : getPhases()) {
+            out.println(String.format("  %-24s %10.1f %10.1f %10.1f  %s",
+                phase.getName(), phase.getStartMillis(), phase.getEndMillis(),
+                phase.getDurationMillis(), phase.getThread()));
+        }
+    }
+
+    /**
+     * Writes the timeline as CSV for comparison across releases.
+     * @param file The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void exportCsv(Path file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+            writer.println("phase,thread,start_ms,end_ms,duration_ms");
+            for (Phase phase : getPhases()) {
+                writer.println(String.format(Locale.ROOT, "%s,%s,%.3f,%.3f,%.3f",
+                    phase.getName(), phase.getThread(), phase.getStartMillis(),
+                    phase.getEndMillis(), phase.getDurationMillis()));
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.service;
+
+import org.example.model.TestSession;
+import org.example.model.UserStatistics;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Bounded per-user cache of {@link UserStatistics}.
+ * Entries are evicted by size (least recently used first) and by age.
+ * Saving a session updates the cached entry in place so repeated views stay warm.
+ */
+public class StatisticsCache {
+    private static final Logger LOGGER = Logger.getLogger(StatisticsCache.class.getName());
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+    private static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000L;
+    private static StatisticsCache instance;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<Integer, Entry> entries;
+    // Every change takes the next generation; a load is stale only if its own user, or the
+    // whole cache, changed after the load began. One long per user who has saved a session
+    private long generation;
+    private final Map<Integer, Long> changedAt = new HashMap<>();
+    private long clearedAt;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static class Entry {
+        final UserStatistics statistics;
+        final long createdAt;
+
+        Entry(UserStatistics statistics, long createdAt) {
+            this.statistics = statistics;
+            this.createdAt = createdAt;
+        }
+    }
+
+    public StatisticsCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > StatisticsCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the shared cache instance.
+     * @return The StatisticsCache instance
+     */
+    public static synchronized StatisticsCache getInstance() {
+        if (instance == null) {
+            instance = new StatisticsCache(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the cached statistics for a user.
+     * @param userId The ID of the user
+     * @return A copy of the cached statistics, or null if absent or expired
+     */
+    public synchronized UserStatistics get(int userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null && isExpired(entry)) {
+            entries.remove(userId);
+            evictions.incrementAndGet();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new UserStatistics(entry.statistics);
+    }
+
+    /**
+     * Gets a token that must be passed to {@link #put} after loading from the database.
+     * A put is dropped if a session was recorded for the same user in between, so a slow load never
+     * overwrites newer data; other users' saves leave it valid.
+     */
+    public synchronized long beginLoad() {
+        return generation;
+    }
+
+    /**
+     * Caches statistics loaded from the database.
+     * @param userId The ID of the user
+     * @param statistics The freshly computed statistics
+     * @param loadToken The token returned by {@link #beginLoad()} before the load started
+     */
+    public synchronized void put(int userId, UserStatistics statistics, long loadToken) {
+        if (loadToken < clearedAt || loadToken < changedAt.getOrDefault(userId, 0L)) {
+            LOGGER.fine("Discarding stale statistics load for user " + userId);
+            return;
+        }
+        entries.put(userId, new Entry(new UserStatistics(statistics), System.currentTimeMillis()));
+    }
+
+    /**
+     * Write-through hook for a newly saved session.
+     * Updates the user's cached entry if present, leaving other users untouched.
+     * @param session The session that was saved
+     */
+    public synchronized void recordSession(TestSession session) {
+        if (session.isEndless()) {
+            // Statistics are loaded without endless runs, so there is nothing to update
+            return;
+        }
+        changedAt.put(session.getUserId(), ++generation);
+        Entry entry = entries.get(session.getUserId());
+        if (entry == null) {
+            return;
+        }
+        if (isExpired(entry)) {
+            entries.remove(session.getUserId());
+            evictions.incrementAndGet();
+            return;
+        }
+        // Copy-on-write so readers holding the previous snapshot are unaffected
+        UserStatistics updated = new UserStatistics(entry.statistics);
+        updated.addSession(session);
+        entries.put(session.getUserId(), new Entry(updated, entry.createdAt));
+    }
+
+    public synchronized void invalidate(int userId) {
+        changedAt.put(userId, ++generation);
+        entries.remove(userId);
+    }
+
+    public synchronized void clear() {
+        clearedAt = ++generation;
+        changedAt.clear();
+        entries.clear();
+    }
+
+    /**
+     * Removes all expired entries.
+     */
+    public synchronized void evictExpired() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (isExpired(it.next())) {
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.createdAt > ttlMillis;
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getEvictionCount() { return evictions.get(); }
+
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StatisticsCache[size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%]",
+            size(), getHitCount(), getMissCount(), getEvictionCount(), getHitRate() * 100);
+    }
+}
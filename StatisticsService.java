@@ -1,12 +1,58 @@
 src/main/java/org/example/service/StatisticsService.java
 package org.example.service;
 
+import org.example.database.DatabaseManager;
+import org.example.model.SessionColumns;
 import org.example.model.TestSession;
+import org.example.model.TrendState;
+import org.example.model.UserStatistics;
+import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 public class StatisticsService {
+    /**
+     * Gets aggregate statistics for a user, served from {@link StatisticsCache} when possible.
+     * @param userId The ID of the user
+     * @return The user's statistics
+     * @throws SQLException if a database error occurs
+     */
+    public static UserStatistics getUserStatistics(int userId) throws SQLException {
+        StatisticsCache cache = StatisticsCache.getInstance();
+        UserStatistics cached = cache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadToken = cache.beginLoad();
+        UserStatistics statistics = new UserStatistics(DatabaseManager.getInstance().getUserSessionColumns(userId));
+        cache.put(userId, statistics, loadToken);
+        return statistics;
+    }
+
+    /**
+     * Gets the incrementally maintained trend metrics for a user.
+     * @param userId The ID of the user
+     * @return The user's trend state
+     * @throws SQLException if a database error occurs
+     */
+    public static TrendState getTrend(int userId) throws SQLException {
+        return DatabaseManager.getInstance().getTrendState(userId);
+    }
+
+    /**
+     * Describes a trend in words for display.
+     */
+    public static String describeTrend(TrendState trend) {
+        if (trend.getWindowSize() < 2) return "Not enough tests";
+        if (trend.isPlateau()) return "Plateau";
+        if (trend.getSlope() >= TrendState.PLATEAU_SLOPE) return "Improving";
+        if (trend.getSlope() <= -TrendState.PLATEAU_SLOPE) return "Declining";
+        return "Steady";
+    }
+
     public static double calculateAverageWPM(List<TestSession> sessions) {
         if (sessions == null || sessions.isEmpty()) return 0.0;
         return sessions.stream()
@@ -59,4 +105,88 @@ public class StatisticsService {
                     Collectors.averagingDouble(TestSession::getWpm)
                 ));
     }
+
+    // Columnar variants: single passes over primitive arrays
+
+    public static double calculateAverageWPM(SessionColumns columns) {
+        if (columns == null || columns.size() == 0) return 0.0;
+        double sum = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            sum += columns.getWpm(i);
+        }
+        return sum / columns.size();
+    }
+
+    public static double calculateBestWPM(SessionColumns columns) {
+        if (columns == null || columns.size() == 0) return 0.0;
+        double best = columns.getWpm(0);
+        for (int i = 1; i < columns.size(); i++) {
+            best = Math.max(best, columns.getWpm(i));
+        }
+        return best;
+    }
+
+    public static double calculateAverageAccuracy(SessionColumns columns) {
+        if (columns == null || columns.size() == 0) return 0.0;
+        double sum = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            sum += columns.getAccuracy(i);
+        }
+        return sum / columns.size();
+    }
+
+    public static int calculateTotalTests(SessionColumns columns) {
+        return columns != null ? columns.size() : 0;
+    }
+
+    public static Map<String, Double> getAverageWPMByDifficulty(SessionColumns columns) {
+        if (columns == null) return Map.of();
+        double[] sums = new double[columns.getDifficultyCount()];
+        int[] counts = new int[columns.getDifficultyCount()];
+        for (int i = 0; i < columns.size(); i++) {
+            int code = columns.getDifficultyCode(i);
+            sums[code] += columns.getWpm(i);
+            counts[code]++;
+        }
+        Map<String, Double> averages = new HashMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            if (counts[code] > 0) {
+                averages.put(columns.getDifficultyForCode(code), sums[code] / counts[code]);
+            }
+        }
+        return averages;
+    }
+
+    public static Map<Integer, Double> getAverageWPMByLevel(SessionColumns columns) {
+        if (columns == null) return Map.of();
+        double[] sums = new double[columns.getLevelCount()];
+        int[] counts = new int[columns.getLevelCount()];
+        for (int i = 0; i < columns.size(); i++) {
+            int code = columns.getLevelCode(i);
+            sums[code] += columns.getWpm(i);
+            counts[code]++;
+        }
+        Map<Integer, Double> averages = new HashMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            if (counts[code] > 0) {
+                averages.put(columns.getLevelForCode(code), sums[code] / counts[code]);
+            }
+        }
+        return averages;
+    }
+
+    /**
+     * Gets the sessions for one difficulty and/or level.
+     * @param difficulty The difficulty, or null for any
+     * @param level The level, or 0 for any
+     * @return The matching sessions; empty if the difficulty or level never occurs
+     */
+    public static SessionColumns filter(SessionColumns columns, String difficulty, int level) {
+        int difficultyCode = difficulty != null ? columns.difficultyCode(difficulty) : -1;
+        int levelCode = level > 0 ? columns.levelCode(level) : -1;
+        if ((difficulty != null && difficultyCode < 0) || (level > 0 && levelCode < 0)) {
+            return columns.gather(new int[0]);
+        }
+        return columns.gather(columns.select(difficultyCode, levelCode));
+    }
 }
\ No newline at end of file
@@ -4,6 +4,15 @@ package org.example.model;
 import java.time.LocalDateTime;
 
 public class TestSession {
+    /**
+     * Where a session's text came from, which decides what its seed reproduces.
+     */
+    public enum PassageSource {
+        CATALOGUE, // a stored passage picked for the difficulty and level by the seed
+        DRILL,     // generated from the user's bigram profile at the time; not reproducible
+        ENDLESS    // a word stream generated from the difficulty and the seed
+    }
+
     private int sessionId;
     private int userId;
     private String difficulty;
@@ -14,6 +23,8 @@ public class TestSession {
     private int errors;
     private LocalDateTime testDate;
     private int level;
+    private Long seed; // regenerates the text with the source; null if it cannot, or for sessions from before seeds were recorded
+    private PassageSource source; // null for sessions from before sources were recorded
 
     public TestSession() {}
 
@@ -61,4 +72,15 @@ public class TestSession {
     
     public int getLevel() { return level; }
     public void setLevel(int level) { this.level = level; }
+    
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+    
+    public PassageSource getSource() { return source; }
+    public void setSource(PassageSource source) { this.source = source; }
+    
+    /**
+     * @return true for an endless run, whose text is generated rather than drawn from its level
+     */
+    public boolean isEndless() { return source == PassageSource.ENDLESS; }
 }
\ No newline at end of file
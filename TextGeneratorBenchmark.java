@@ -0,0 +1,134 @@
+package org.example;
+
+import org.example.model.DifficultyLevel;
+import org.example.util.TextGenerator;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the alias-table TextGenerator with the previous pool-based generator.
+ * Reports throughput for one thread and for all cores, and bytes allocated per passage.
+ *
+ * Usage: TextGeneratorBenchmark [passagesPerThread]
+ */
+public class TextGeneratorBenchmark {
+    private static final String[] COMMON_WORDS = {
+        "the", "be", "to", "of", "and", "a", "in", "that", "have", "I"
+    };
+    private static final String[] MEDIUM_WORDS = {
+        "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "pack", "my", "box"
+    };
+    private static final String[] HARD_WORDS = {
+        "quintessential", "juxtaposition", "xylophone", "quagmire", "kaleidoscope",
+        "mnemonic", "pneumonia", "rhythm", "synecdoche", "zephyr"
+    };
+    private static final Random legacyRandom = new Random();
+
+    // Keeps results reachable so the JIT cannot drop the work
+    private static volatile int sink;
+
+    /**
+     * The generator as it was before alias tables: a fresh 100-word pool and a shared Random per call.
+     */
+    static String legacyGenerateText(DifficultyLevel level) {
+        List<String> wordPool = new ArrayList<>();
+        switch (level) {
+            case EASY:
+                addWords(wordPool, COMMON_WORDS, 100);
+                break;
+            case MEDIUM:
+                addWords(wordPool, COMMON_WORDS, 50);
+                addWords(wordPool, MEDIUM_WORDS, 50);
+                break;
+            case HARD:
+                addWords(wordPool, MEDIUM_WORDS, 40);
+                addWords(wordPool, HARD_WORDS, 60);
+                break;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < level.getWordCount(); i++) {
+            if (i > 0) text.append(" ");
+            text.append(wordPool.get(legacyRandom.nextInt(wordPool.size())));
+        }
+        return text.toString();
+    }
+
+    private static void addWords(List<String> wordPool, String[] words, int count) {
+        for (int i = 0; i < count; i++) {
+            wordPool.add(words[i % words.length]);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int passages = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Passages per thread: " + passages + ", threads: " + threads);
+        for (DifficultyLevel level : DifficultyLevel.values()) {
+            // Warm up both paths before measuring
+            run(passages / 10, level, false);
+            run(passages / 10, level, true);
+
+            System.out.println();
+            System.out.println(level + " (" + level.getWordCount() + " words)");
+            report("legacy, 1 thread", passages, 1, level, true);
+            report("alias,  1 thread", passages, 1, level, false);
+            if (threads > 1) {
+                report("legacy, " + threads + " threads", passages, threads, level, true);
+                report("alias,  " + threads + " threads", passages, threads, level, false);
+            }
+        }
+    }
+
+    private static void report(String name, int passages, int threads, DifficultyLevel level, boolean legacy)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> run(passages, level, legacy)));
+            }
+            long allocated = 0;
+            for (Future<Long> result : results) {
+                allocated += result.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long total = (long) passages * threads;
+            System.out.println(String.format("  %-20s %12.0f passages/s  %8.0f bytes/passage",
+                name, total / seconds, allocated < 0 ? Double.NaN : (double) allocated / total));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Generates passages on the calling thread.
+     * @return Bytes allocated by this thread, or -1 if the JVM does not report it
+     */
+    private static long run(int passages, DifficultyLevel level, boolean legacy) {
+        long before = allocatedBytes();
+        int length = 0;
+        for (int i = 0; i < passages; i++) {
+            String text = legacy ? legacyGenerateText(level) : TextGenerator.generateText(level);
+            length += text.length();
+        }
+        sink = length;
+        long after = allocatedBytes();
+        return before < 0 ? -1 : after - before;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
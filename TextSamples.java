@@ -1,6 +1,120 @@
 package org.example.util;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
 public class TextSamples {
+    private static final Logger LOGGER = Logger.getLogger(TextSamples.class.getName());
+    
+    /**
+     * Opens the corpus named by -Dtyping.corpus=<base path> on first use, with its score index
+     * if {@link PassageAnalyzer} has built one. Without the property, or if the corpus cannot be
+     * opened, the built-in samples below are used.
+     */
+    private static class CorpusHolder {
+        static final CorpusStore CORPUS = openCorpus();
+        static final PassageIndex SCORES = CORPUS != null ? openScores() : null;
+        
+        private static CorpusStore openCorpus() {
+            String base = System.getProperty("typing.corpus");
+            if (base == null || base.isBlank()) return null;
+            try {
+                return CorpusStore.open(Path.of(base));
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Could not open passage corpus " + base + "; using built-in samples", e);
+                return null;
+            }
+        }
+        
+        private static PassageIndex openScores() {
+            Path file = CorpusStore.scoresPath(Path.of(System.getProperty("typing.corpus")));
+            if (!Files.exists(file)) return null;
+            try {
+                PassageIndex scores = PassageIndex.open(file);
+                // Scores left from before the corpus was re-imported would pick the wrong passages, or none
+                if (scores.getCount() != CORPUS.getPassageCount()) {
+                    LOGGER.warning("Passage scores " + file + " cover " + scores.getCount() + " passages but the corpus has "
+                        + CORPUS.getPassageCount() + "; using corpus levels");
+                    return null;
+                }
+                return scores;
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Could not open passage scores " + file + "; using corpus levels", e);
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * The built-in samples, scored and banded on first use rather than by the list they are in.
+     */
+    private static class BuiltInHolder {
+        static final String[] PASSAGES = Stream.of(
+                EASY_LEVEL_1, EASY_LEVEL_2, EASY_LEVEL_3,
+                MEDIUM_LEVEL_1, MEDIUM_LEVEL_2, MEDIUM_LEVEL_3,
+                HARD_LEVEL_1, HARD_LEVEL_2, HARD_LEVEL_3)
+            .flatMap(Arrays::stream)
+            .toArray(String[]::new);
+        // Scoring runs on pool threads while this class is still initializing; a lambda here would
+        // compile to a method of this class, and calling it would wait for initialization to finish
+        static final PassageIndex INDEX = PassageAnalyzer.buildIndex(Arrays.asList(PASSAGES)::get, PASSAGES.length);
+    }
+    
+    /**
+     * The drill word model, built on first use from the corpus when one is configured (up to
+     * {@link #MAX_MODEL_PASSAGES} passages, enough for a varied vocabulary) or else the built-in samples.
+     */
+    private static class AdaptiveHolder {
+        static final int MAX_MODEL_PASSAGES = 50_000;
+        static final AdaptiveTextGenerator GENERATOR = buildGenerator();
+        
+        private static AdaptiveTextGenerator buildGenerator() {
+            CorpusStore corpus = CorpusHolder.CORPUS;
+            if (corpus != null && corpus.getPassageCount() > 0) {
+                return AdaptiveTextGenerator.build(corpus::getPassage,
+                    Math.min(corpus.getPassageCount(), MAX_MODEL_PASSAGES));
+            }
+            return AdaptiveTextGenerator.build(i -> BuiltInHolder.PASSAGES[i], BuiltInHolder.PASSAGES.length);
+        }
+    }
+    
+    /**
+     * The n-gram index over whichever passages {@link #getTextContaining} draws from: the corpus's
+     * saved {@code <base>.ngrams} index, built in memory if {@link NgramIndex} has not saved one
+     * or saved it for a different corpus, or else an index over the built-in samples.
+     */
+    private static class NgramHolder {
+        static final NgramIndex INDEX = openIndex();
+        
+        private static NgramIndex openIndex() {
+            CorpusStore corpus = CorpusHolder.CORPUS;
+            if (corpus == null) {
+                return NgramIndex.build(i -> BuiltInHolder.PASSAGES[i], BuiltInHolder.PASSAGES.length);
+            }
+            Path file = CorpusStore.ngramsPath(Path.of(System.getProperty("typing.corpus")));
+            if (Files.exists(file)) {
+                try {
+                    NgramIndex index = NgramIndex.open(file);
+                    // An index left from before the corpus was re-imported would return the wrong IDs
+                    if (index.getPassageCount() == corpus.getPassageCount()) {
+                        return index;
+                    }
+                    LOGGER.warning("N-gram index " + file + " covers " + index.getPassageCount() + " passages but the corpus has "
+                        + corpus.getPassageCount() + "; rebuilding it");
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Could not open n-gram index " + file + "; rebuilding it", e);
+                }
+            }
+            return NgramIndex.build(corpus::getPassage, corpus.getPassageCount());
+        }
+    }
+    
     // Easy: Three progressive levels of simple Java concepts
     public static final String[] EASY_LEVEL_1 = {
         "Java is a popular language. It is used to make apps. Code is in classes. Classes have methods. The main method starts programs.",
@@ -58,6 +172,16 @@ public class TextSamples {
         "Low-level concurrency uses Unsafe. Compare-and-swap enables lock-free algorithms. VarHandles provide safe access. Fences control memory ordering. Off-heap memory bypasses GC."
     };
 
+    // Seeds handed out for reproducible passages are kept short enough to read out to a class
+    public static final long MAX_SEED = 999_999_999L;
+    
+    /**
+     * @return A new random seed between 0 and {@link #MAX_SEED}
+     */
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong(MAX_SEED + 1);
+    }
+    
     /**
      * Gets a random text sample for the specified difficulty and level
      * @param difficulty "easy", "medium", or "hard"
@@ -65,38 +189,113 @@ public class TextSamples {
      * @return A string containing the text to type
      */
     public static String getTextByLevel(String difficulty, int level) {
-        String[] selectedArray;
+        return getTextByLevel(difficulty, level, ThreadLocalRandom.current());
+    }
+    
+    /**
+     * Gets the text sample a seed selects for the specified difficulty and level. The same seed
+     * always selects the same passage while the corpus and its scores are unchanged.
+     * @param difficulty "easy", "medium", or "hard"
+     * @param level 1, 2, or 3
+     * @param seed The seed
+     * @return A string containing the text to type
+     */
+    public static String getTextByLevel(String difficulty, int level, long seed) {
+        return getTextByLevel(difficulty, level, new Random(seed));
+    }
+    
+    /**
+     * Gets a text sample for the specified difficulty and level, drawing from the given source.
+     * @param difficulty "easy", "medium", or "hard"
+     * @param level 1, 2, or 3
+     * @param random The random source; a seeded one makes the selection reproducible
+     * @return A string containing the text to type
+     */
+    public static String getTextByLevel(String difficulty, int level, Random random) {
+        // Difficulty and level select a score band; picking within a band is constant time
+        int band = PassageIndex.band(difficulty, level);
         
-        switch (difficulty.toLowerCase()) {
-            case "easy" -> {
-                switch (level) {
-                    case 1 -> selectedArray = EASY_LEVEL_1;
-                    case 2 -> selectedArray = EASY_LEVEL_2;
-                    case 3 -> selectedArray = EASY_LEVEL_3;
-                    default -> throw new IllegalArgumentException("Invalid level for easy difficulty: " + level);
+        // Prefer the external corpus when one is configured and has passages for this level
+        CorpusStore corpus = CorpusHolder.CORPUS;
+        if (corpus != null) {
+            PassageIndex scores = CorpusHolder.SCORES;
+            if (scores != null) {
+                int id = scores.randomPassageId(band, random);
+                if (id >= 0) {
+                    return corpus.getPassage(id);
                 }
             }
-            case "medium" -> {
-                switch (level) {
-                    case 1 -> selectedArray = MEDIUM_LEVEL_1;
-                    case 2 -> selectedArray = MEDIUM_LEVEL_2;
-                    case 3 -> selectedArray = MEDIUM_LEVEL_3;
-                    default -> throw new IllegalArgumentException("Invalid level for medium difficulty: " + level);
-                }
-            }
-            case "hard" -> {
-                switch (level) {
-                    case 1 -> selectedArray = HARD_LEVEL_1;
-                    case 2 -> selectedArray = HARD_LEVEL_2;
-                    case 3 -> selectedArray = HARD_LEVEL_3;
-                    default -> throw new IllegalArgumentException("Invalid level for hard difficulty: " + level);
-                }
+            String passage = corpus.getRandomPassage(difficulty, level, random);
+            if (passage != null) {
+                return passage;
             }
-            default -> throw new IllegalArgumentException("Invalid difficulty: " + difficulty);
         }
         
-        // Return a random sentence from the selected level
-        return selectedArray[(int) (Math.random() * selectedArray.length)];
+        // Return a random built-in sample from the band
+        return BuiltInHolder.PASSAGES[BuiltInHolder.INDEX.randomPassageId(band, random)];
+    }
+    
+    /**
+     * Gets the built-in samples in the score band for a difficulty and level, lowest score first.
+     * @param difficulty "easy", "medium", or "hard"
+     * @param level 1, 2, or 3
+     * @return A new array of the band's passages
+     */
+    public static String[] getBuiltInPassages(String difficulty, int level) {
+        int band = PassageIndex.band(difficulty, level);
+        PassageIndex index = BuiltInHolder.INDEX;
+        String[] passages = new String[index.getBandSize(band)];
+        for (int i = 0; i < passages.length; i++) {
+            passages[i] = BuiltInHolder.PASSAGES[index.getPassageId(band, i)];
+        }
+        return passages;
+    }
+    
+    /**
+     * @return Whether an external corpus is configured and open
+     */
+    public static boolean hasCorpus() {
+        return CorpusHolder.CORPUS != null;
+    }
+    
+    /**
+     * Gets a random passage containing every given letter combination, for targeted practice.
+     * Passages are looked up in the n-gram index, building it on first call if needed.
+     * @param random The random source; a seeded one makes the selection reproducible
+     * @param grams One or more combinations of 2 to 4 letters or digits, in any case
+     * @return The passage, or null if no passage contains them all
+     * @throws IllegalArgumentException if a combination is not 2 to 4 letters or digits
+     */
+    public static String getTextContaining(Random random, String... grams) {
+        int[] ids = findTextContaining(grams);
+        return ids.length == 0 ? null : getIndexedText(ids[random.nextInt(ids.length)]);
+    }
+    
+    /**
+     * Finds every passage containing the given letter combinations. The stored PASSAGES rows are
+     * not included; {@link org.example.service.PassageCatalogue} indexes those itself.
+     * @param grams One or more combinations of 2 to 4 letters or digits, in any case
+     * @return The passages' IDs for {@link #getIndexedText(int)}, ascending
+     * @throws IllegalArgumentException if a combination is not 2 to 4 letters or digits
+     */
+    public static int[] findTextContaining(String... grams) {
+        return NgramHolder.INDEX.find(grams);
+    }
+    
+    /**
+     * @param id An ID returned by {@link #findTextContaining(String...)}
+     * @return The passage
+     */
+    public static String getIndexedText(int id) {
+        CorpusStore corpus = CorpusHolder.CORPUS;
+        return corpus != null ? corpus.getPassage(id) : BuiltInHolder.PASSAGES[id];
+    }
+    
+    /**
+     * Gets the word model used to generate adaptive drills, building it on first call.
+     */
+    public static AdaptiveTextGenerator getAdaptiveGenerator() {
+        return AdaptiveHolder.GENERATOR;
     }
     
     /**
@@ -0,0 +1,112 @@
+package org.example.model;
+
+/**
+ * Incrementally maintained trend metrics for one user.
+ * Holds exponential moving averages of WPM and accuracy plus a fixed-size window of recent
+ * WPM values with running regression sums, so each new session is folded in in O(1).
+ */
+public class TrendState {
+    public static final int WINDOW_SIZE = 20;
+    public static final int EMA_PERIOD = 10;
+    public static final double PLATEAU_SLOPE = 0.1; // WPM per test
+
+    private static final double ALPHA = 2.0 / (EMA_PERIOD + 1);
+
+    private final int userId;
+    private long sessionCount;
+    private double emaWpm;
+    private double emaAccuracy;
+
+    // Ring buffer of recent WPM values; x is the position within the window (0 = oldest)
+    private final double[] window = new double[WINDOW_SIZE];
+    private int head;
+    private int size;
+    private double sumY;
+    private double sumXY;
+
+    public TrendState(int userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Restores persisted state.
+     * @param recentWpm The recent WPM values, oldest first (at most {@link #WINDOW_SIZE} are used)
+     */
+    public TrendState(int userId, long sessionCount, double emaWpm, double emaAccuracy, double[] recentWpm) {
+        this.userId = userId;
+        this.emaWpm = emaWpm;
+        this.emaAccuracy = emaAccuracy;
+        int start = Math.max(0, recentWpm.length - WINDOW_SIZE);
+        for (int i = start; i < recentWpm.length; i++) {
+            push(recentWpm[i]);
+        }
+        this.sessionCount = sessionCount;
+    }
+
+    /**
+     * Folds a new session into the trend.
+     * @param wpm The session's words per minute
+     * @param accuracy The session's accuracy percentage
+     */
+    public void addSession(double wpm, double accuracy) {
+        if (sessionCount == 0) {
+            emaWpm = wpm;
+            emaAccuracy = accuracy;
+        } else {
+            emaWpm += ALPHA * (wpm - emaWpm);
+            emaAccuracy += ALPHA * (accuracy - emaAccuracy);
+        }
+        sessionCount++;
+        push(wpm);
+    }
+
+    private void push(double wpm) {
+        if (size == WINDOW_SIZE) {
+            // Drop the oldest value (x = 0) and shift the remaining x positions down by one
+            sumY -= window[head];
+            sumXY -= sumY;
+            head = (head + 1) % WINDOW_SIZE;
+            size--;
+        }
+        window[(head + size) % WINDOW_SIZE] = wpm;
+        sumY += wpm;
+        sumXY += size * wpm;
+        size++;
+    }
+
+    /**
+     * Gets the least-squares slope of WPM over the recent window.
+     * @return The change in WPM per test, or 0 with fewer than two sessions
+     */
+    public double getSlope() {
+        if (size < 2) return 0.0;
+        double n = size;
+        double sumX = n * (n - 1) / 2;
+        double sumXX = (n - 1) * n * (2 * n - 1) / 6;
+        return (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+    }
+
+    /**
+     * A plateau is a full window whose regression slope is effectively flat.
+     */
+    public boolean isPlateau() {
+        return size == WINDOW_SIZE && Math.abs(getSlope()) < PLATEAU_SLOPE;
+    }
+
+    /**
+     * Gets the recent WPM values, oldest first.
+     */
+    public double[] getRecentWpm() {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = window[(head + i) % WINDOW_SIZE];
+        }
+        return values;
+    }
+
+    public int getUserId() { return userId; }
+    public long getSessionCount() { return sessionCount; }
+    public double getEmaWpm() { return emaWpm; }
+    public double getEmaAccuracy() { return emaAccuracy; }
+    public int getWindowSize() { return size; }
+}
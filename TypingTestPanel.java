@@ -1,36 +1,47 @@
 package org.example.view.panels;
 
 import org.example.database.DatabaseManager;
+import org.example.database.HistoryQuery;
+import org.example.database.HistoryRepository;
+import org.example.model.BigramStats;
+import org.example.model.DifficultyLevel;
 import org.example.model.TestSession;
 import org.example.model.User;
+import org.example.service.PassagePrefetcher;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 import org.example.view.MainFrame;
+import org.example.view.ManagedView;
+import org.example.view.QuerySorter;
+import org.example.util.AdaptiveTextGenerator;
+import org.example.util.ChunkedText;
+import org.example.util.PreparedPassage;
 import org.example.util.TextSamples;
+import org.example.util.WordStream;
 
 import javax.swing.*;
 import javax.swing.Timer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import java.awt.*;
 import java.awt.event.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.sql.PreparedStatement;
+import java.util.SplittableRandom;
 
-public class TypingTestPanel extends JPanel {
+public class TypingTestPanel extends JPanel implements ManagedView {
     private final MainFrame parent;
-    private final User currentUser;
-    private final String difficulty;
-    private final int level;
-    private String sampleText;
+    private User currentUser;
+    private String difficulty;
+    private int level;
+    private String sampleText; // the text first shown, all of it unless the text is windowed
+    private ChunkedText passageText;
     // Removed JTextArea as we're using KeyListener now
     private JLabel timerLabel;
     private JLabel wpmLabel;
@@ -46,17 +57,55 @@ public class TypingTestPanel extends JPanel {
     private int totalChars = 0;
     private int timeElapsed = 0; // in seconds
     private final StringBuilder typedText = new StringBuilder(); // Track typed characters
+    
+    // Adaptive drill: per-bigram timing for the current test, and the user's totals behind the drill profile
+    private static final int DRILL_WORDS = 40;
+    private JCheckBox drillCheckBox;
+    private boolean drillMode;
+    private BigramStats testBigrams = new BigramStats();
+    private long lastKeyNanos;
+    private BigramStats userBigrams;
+    private int bigramsUserId = -1;
+    private AdaptiveTextGenerator.Profile drillProfile;
+    private SwingWorker<AdaptiveTextGenerator.Profile, Void> drillWorker;
+    
+    // Endless streams and long passages show only a window around the cursor, so layout cost does
+    // not grow with the text. In endless mode text is also generated ahead of the cursor and dropped
+    // behind it, so the expected text and the typed text stay bounded however long the test runs
+    private static final int WINDOW_AHEAD = 600;     // characters shown ahead of the cursor
+    private static final int WINDOW_BEHIND = 120;    // characters kept behind the cursor
+    private static final int WINDOW_SLIDE = 200;     // slack before the window is moved, so moves are rare
+    private static final int WINDOWED_LENGTH = 8192; // passages longer than this are windowed
+    private static final int STREAM_CAPACITY = 2048;
+    private static final int TYPED_TEXT_TAIL = 4096; // typed characters kept for the saved session
+    private JCheckBox endlessCheckBox;
+    private boolean endlessMode;
+    private WordStream stream;
+    private boolean windowed;
+    private int shownStart; // text offsets of the displayed window
+    private int shownEnd;
+    
+    // Seed the user asked for (null picks a fresh one per test), and the seed and generator behind the current text
+    private Long requestedSeed;
+    private long seed;
+    private TestSession.PassageSource source;
 
     private JTextArea sampleTextArea;
+    private JPanel textPanel;
     private static final Logger LOGGER = Logger.getLogger(TypingTestPanel.class.getName()); // For displaying sample text only
 
-    public TypingTestPanel(MainFrame parent, User user, String difficulty, int level) {
+    /**
+     * Creates the panel without a passage; {@link #reset(User, String, int, Long)} loads the
+     * first one, so a panel built just before its first reset loads only once.
+     */
+    public TypingTestPanel(MainFrame parent) {
         this.parent = parent;
-        this.currentUser = user;
-        this.difficulty = difficulty;
-        this.level = level;
-        loadSampleText(); // Load text first
-        initializeUI();   // Then initialize UI with the loaded text
+        initializeUI();
+    }
+
+    public TypingTestPanel(MainFrame parent, User user, String difficulty, int level) {
+        this(parent);
+        reset(user, difficulty, level);
     }
 
     private void initializeUI() {
@@ -84,11 +133,10 @@ public class TypingTestPanel extends JPanel {
         topPanel.add(accuracyLabel);
 
         // Text display area
-        JPanel textPanel = new JPanel(new BorderLayout());
-        textPanel.setBorder(BorderFactory.createTitledBorder("Type the following text (" + difficulty + " - Level " + level + "):"));
+        textPanel = new JPanel(new BorderLayout());
         
-        // Initialize the sample text area with the loaded text
-        sampleTextArea = new JTextArea(sampleText);
+        // Empty until reset() loads a passage
+        sampleTextArea = new JTextArea();
         sampleTextArea.setWrapStyleWord(true);
         sampleTextArea.setLineWrap(true);
         sampleTextArea.setEditable(false);
@@ -99,10 +147,7 @@ public class TypingTestPanel extends JPanel {
         textPanel.add(scrollPane, BorderLayout.CENTER);
         
         // Add some padding around the text
-        textPanel.setBorder(BorderFactory.createCompoundBorder(
-            BorderFactory.createTitledBorder("Type the following text (Level 1):"),
-            BorderFactory.createEmptyBorder(10, 10, 10, 10)
-        ));
+        updateTextPanelTitle();
 
         // User input area - Removed text area as we're using direct key logging
         JPanel inputPanel = new JPanel(new BorderLayout());
@@ -123,6 +168,14 @@ public class TypingTestPanel extends JPanel {
         doneButton.setEnabled(false);
         doneButton.addActionListener(e -> finishTest());
         
+        drillCheckBox = new JCheckBox("Adaptive drill");
+        drillCheckBox.setToolTipText("Practise words built from the letter pairs you type slowest or least accurately");
+        drillCheckBox.addActionListener(e -> setDrillMode(drillCheckBox.isSelected()));
+        
+        endlessCheckBox = new JCheckBox("Endless");
+        endlessCheckBox.setToolTipText("Keep generating words until you press Enter or Done");
+        endlessCheckBox.addActionListener(e -> setEndlessMode(endlessCheckBox.isSelected()));
+        
         JButton backToMenuButton = new JButton("Back to Menu");
         backToMenuButton.addActionListener(e -> parent.showView("DASHBOARD"));
         
@@ -139,6 +192,8 @@ public class TypingTestPanel extends JPanel {
         JPanel testButtonsPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
         testButtonsPanel.add(startButton);
         testButtonsPanel.add(doneButton);
+        testButtonsPanel.add(drillCheckBox);
+        testButtonsPanel.add(endlessCheckBox);
         
         buttonPanel.add(testButtonsPanel, BorderLayout.NORTH);
         buttonPanel.add(backButtonPanel, BorderLayout.SOUTH);
@@ -182,20 +237,204 @@ public class TypingTestPanel extends JPanel {
         });
     }
 
+    private void updateTextPanelTitle() {
+        String title;
+        if (endlessMode) {
+            title = "Type for as long as you like (" + difficulty + " - endless, seed " + seed + "):";
+        } else if (drillMode && drillProfile != null) {
+            title = "Type the following drill (built from your weakest letter pairs, seed " + seed + "):";
+        } else {
+            title = "Type the following text (" + difficulty + " - Level " + level + ", seed " + seed + "):";
+        }
+        textPanel.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createTitledBorder(title),
+            BorderFactory.createEmptyBorder(10, 10, 10, 10)
+        ));
+    }
+
+    /**
+     * Prepares this panel for a new test so it can be reused instead of rebuilt.
+     * @param user The user taking the test
+     * @param difficulty The difficulty of the test
+     * @param level The level within the difficulty
+     */
+    public void reset(User user, String difficulty, int level) {
+        reset(user, difficulty, level, null);
+    }
+
+    /**
+     * Prepares this panel for a new test whose passage is selected by a given seed, so the same
+     * test can be repeated or handed to a whole class.
+     * @param user The user taking the test
+     * @param difficulty The difficulty of the test
+     * @param level The level within the difficulty
+     * @param seed The seed, or null for a fresh one each test
+     */
+    public void reset(User user, String difficulty, int level, Long seed) {
+        stopTest();
+        this.requestedSeed = seed;
+        if (user == null || user.getUserId() != bigramsUserId) {
+            // Another user's statistics must not shape this user's drills
+            userBigrams = null;
+            bigramsUserId = -1;
+            drillProfile = null;
+        }
+        this.currentUser = user;
+        this.difficulty = difficulty;
+        this.level = level;
+
+        correctChars = 0;
+        timeElapsed = 0;
+        typedText.setLength(0);
+        loadSampleText();
+
+        timerLabel.setText("Time: 0s");
+        wpmLabel.setText("WPM: 0");
+        accuracyLabel.setText("Accuracy: 0%");
+        startButton.setEnabled(true);
+        doneButton.setEnabled(false);
+        sampleTextArea.setCaretPosition(0);
+        drillCheckBox.setEnabled(true);
+        endlessCheckBox.setEnabled(true);
+        updateTextPanelTitle();
+        if (drillMode && drillProfile == null) {
+            loadDrillProfile();
+        }
+    }
+
+    @Override
+    public void onStart() {
+        requestFocusInWindow();
+    }
+
+    @Override
+    public void onStop() {
+        // Leaving the view abandons a running test
+        stopTest();
+    }
+
+    private void stopTest() {
+        isTestRunning = false;
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    private void setDrillMode(boolean enabled) {
+        drillMode = enabled;
+        if (enabled && endlessMode) {
+            endlessMode = false;
+            endlessCheckBox.setSelected(false);
+        }
+        if (enabled && drillProfile == null) {
+            // The drill replaces the passage once the user's profile has loaded
+            loadDrillProfile();
+            return;
+        }
+        loadSampleText();
+        sampleTextArea.setCaretPosition(0);
+        updateTextPanelTitle();
+    }
+
+    private void setEndlessMode(boolean enabled) {
+        endlessMode = enabled;
+        if (enabled && drillMode) {
+            drillMode = false;
+            drillCheckBox.setSelected(false);
+        }
+        loadSampleText();
+        sampleTextArea.setCaretPosition(0);
+        updateTextPanelTitle();
+    }
+
+    /**
+     * Rebuilds the drill profile in the background from the user's bigram statistics, loading them
+     * from the database the first time, then shows a new drill if the panel is still in drill mode.
+     */
+    private void loadDrillProfile() {
+        if (currentUser == null) return;
+        if (drillWorker != null) {
+            drillWorker.cancel(true);
+        }
+        int userId = currentUser.getUserId();
+        // Snapshot on the EDT; the worker must not read statistics the panel keeps updating
+        BigramStats known = userId == bigramsUserId && userBigrams != null ? new BigramStats(userBigrams) : null;
+        drillWorker = new SwingWorker<>() {
+            private BigramStats loaded;
+
+            @Override
+            protected AdaptiveTextGenerator.Profile doInBackground() throws Exception {
+                BigramStats stats = known;
+                if (stats == null) {
+                    loaded = DatabaseManager.getInstance().getBigramStats(userId);
+                    stats = loaded;
+                }
+                return TextSamples.getAdaptiveGenerator().profile(stats);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || currentUser == null || currentUser.getUserId() != userId) return;
+                try {
+                    drillProfile = get();
+                    if (loaded != null) {
+                        userBigrams = loaded;
+                        bigramsUserId = userId;
+                    }
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Could not build adaptive drill; keeping the regular passage", e);
+                    return;
+                }
+                if (drillMode && !endlessMode && !isTestRunning) {
+                    loadSampleText();
+                    sampleTextArea.setCaretPosition(0);
+                    updateTextPanelTitle();
+                }
+            }
+        };
+        drillWorker.execute();
+    }
+
     private void loadSampleText() {
-        // Get sample text based on difficulty and level
-        sampleText = TextSamples.getTextByLevel(difficulty, level);
-        
-        // Initialize wordsToType if null
-        if (wordsToType == null) {
-            wordsToType = new ArrayList<>();
+        if (endlessMode) {
+            loadStream();
+            return;
+        }
+        stream = null;
+        PreparedPassage passage;
+        if (drillMode && drillProfile != null) {
+            // Generated per test: a binary search per word, so no visible pause between drills
+            long drillSeed = requestedSeed != null ? requestedSeed : TextSamples.newSeed();
+            StringBuilder drill = new StringBuilder(DRILL_WORDS * 8);
+            TextSamples.getAdaptiveGenerator().appendText(drillProfile, DRILL_WORDS, new SplittableRandom(drillSeed), drill);
+            passage = PreparedPassage.prepare(drill.toString(), drillSeed);
+            source = TestSession.PassageSource.DRILL;
+        } else if (requestedSeed != null) {
+            passage = PassagePrefetcher.prepare(difficulty, level, requestedSeed);
+            source = TestSession.PassageSource.CATALOGUE;
         } else {
-            wordsToType.clear();
+            // Usually prepared in the background while the level was being chosen
+            passage = PassagePrefetcher.getInstance().take(difficulty, level);
+            source = TestSession.PassageSource.CATALOGUE;
         }
         
-        // Split text into words for tracking
-        wordsToType.addAll(List.of(sampleText.split("\\s+")));
-        totalChars = sampleText.replaceAll("\\s+", "").length();
+        // Words, chunks and character count come already tokenized
+        passageText = passage.getChunks();
+        seed = passage.getSeed();
+        wordsToType = passage.getWords();
+        totalChars = passage.getCharacterCount();
+        windowed = passageText.length() > WINDOWED_LENGTH;
+        showPassageStart();
+    }
+
+    /**
+     * Shows the passage from its beginning: all of it, or for a long passage the chunks up to
+     * {@link #WINDOW_AHEAD} characters in, so Swing never lays out more than a window.
+     */
+    private void showPassageStart() {
+        shownStart = 0;
+        shownEnd = windowed ? passageText.getChunkEnd(passageText.chunkAt(WINDOW_AHEAD)) : passageText.length();
+        sampleText = passageText.substring(0, shownEnd);
         
         // Update the text area if it's already initialized
         if (sampleTextArea != null) {
@@ -203,8 +442,88 @@ public class TypingTestPanel extends JPanel {
         }
     }
 
+    /**
+     * Starts a new endless stream and shows its first window.
+     */
+    private void loadStream() {
+        seed = requestedSeed != null ? requestedSeed : TextSamples.newSeed();
+        stream = new WordStream(DifficultyLevel.valueOf(difficulty.toUpperCase()), seed, STREAM_CAPACITY);
+        source = TestSession.PassageSource.ENDLESS;
+        stream.fill(WINDOW_AHEAD);
+        passageText = null;
+        windowed = true;
+        shownStart = 0;
+        shownEnd = stream.getEnd();
+        sampleText = stream.substring(0, shownEnd);
+        wordsToType = null; // an endless stream has no word list
+        totalChars = 0;
+        if (sampleTextArea != null) {
+            sampleTextArea.setText(sampleText);
+        }
+    }
+
+    /**
+     * Slides the displayed window to follow the cursor: drops text well behind it and adds more
+     * ahead, editing only the ends of the display, then scrolls to the cursor. An endless stream
+     * generates the text it adds and forgets the text it drops; a long passage moves by whole
+     * chunks, found by binary search.
+     * @param position The text offset of the next character to type
+     */
+    private void advanceWindow(int position) {
+        Document document = sampleTextArea.getDocument();
+        try {
+            if (position - shownStart > WINDOW_BEHIND + WINDOW_SLIDE) {
+                int start = stream != null
+                    ? shownStart + stream.discardBefore(position - WINDOW_BEHIND)
+                    : passageText.getChunkStart(passageText.chunkAt(position - WINDOW_BEHIND));
+                document.remove(0, start - shownStart);
+                shownStart = start;
+            }
+            if (shownEnd - position < WINDOW_AHEAD - WINDOW_SLIDE
+                    && (stream != null || shownEnd < passageText.length())) {
+                int end;
+                String added;
+                if (stream != null) {
+                    stream.fill(position + WINDOW_AHEAD);
+                    end = stream.getEnd();
+                    added = stream.substring(shownEnd, end);
+                } else {
+                    end = passageText.getChunkEnd(passageText.chunkAt(Math.min(position + WINDOW_AHEAD, passageText.length())));
+                    added = passageText.substring(shownEnd, end);
+                }
+                document.insertString(document.getLength(), added, null);
+                shownEnd = end;
+            }
+        } catch (BadLocationException e) {
+            // The display mirrors the window, so this means they have drifted apart; redraw it
+            LOGGER.log(Level.WARNING, "Text display out of step with its window; redrawing", e);
+            sampleTextArea.setText(stream != null
+                ? stream.substring(shownStart, shownEnd) : passageText.substring(shownStart, shownEnd));
+        }
+        sampleTextArea.setCaretPosition(Math.min(Math.max(position - shownStart, 0), document.getLength()));
+    }
+
+    /**
+     * @return The character expected at an offset into the text, or 0 if there is none
+     */
+    private char expectedChar(int position) {
+        if (stream != null) {
+            return position >= stream.getStart() && position < stream.getEnd() ? stream.charAt(position) : 0;
+        }
+        return position < passageText.length() ? passageText.charAt(position) : 0;
+    }
+
     private void startTest() {
         if (isTestRunning) return;
+        if (shownStart > 0) {
+            // The last test moved the window past the beginning; an endless test starts a fresh stream
+            if (stream != null) {
+                loadSampleText();
+                updateTextPanelTitle();
+            } else {
+                showPassageStart();
+            }
+        }
         
         isTestRunning = true;
         startTime = System.currentTimeMillis();
@@ -216,11 +535,15 @@ public class TypingTestPanel extends JPanel {
         // Update UI
         startButton.setEnabled(false);
         doneButton.setEnabled(true);
+        drillCheckBox.setEnabled(false);
+        endlessCheckBox.setEnabled(false);
         
         // Reset stats
         correctChars = 0;
         totalChars = 0;
         timeElapsed = 0;
+        testBigrams = new BigramStats();
+        lastKeyNanos = 0;
         updateStats();
         
         System.out.println("Test started! Start typing...");
@@ -251,16 +574,31 @@ public class TypingTestPanel extends JPanel {
         // For each key press, increment total characters
         totalChars++;
         
-        // Add the typed character to our buffer
+        // Add the typed character to our buffer; an endless test keeps only the most recent part
         typedText.append(keyChar);
+        if (stream != null && typedText.length() > TYPED_TEXT_TAIL * 2) {
+            typedText.delete(0, typedText.length() - TYPED_TEXT_TAIL);
+        }
         
         // Get the expected character at the current position
         int currentPos = totalChars - 1;
-        if (currentPos < sampleText.length() && 
-            sampleText.charAt(currentPos) == keyChar) {
+        char expected = expectedChar(currentPos);
+        if (expected != 0 && expected == keyChar) {
             correctChars++;
         }
         
+        // Record the keystroke against the bigram it completes, timed from the previous key
+        long now = System.nanoTime();
+        if (currentPos > 0 && expected != 0) {
+            long latency = lastKeyNanos == 0 ? -1 : (now - lastKeyNanos) / 1_000_000;
+            testBigrams.record(expectedChar(currentPos - 1), expected, expected == keyChar, latency);
+        }
+        lastKeyNanos = now;
+        
+        if (windowed) {
+            advanceWindow(totalChars);
+        }
+        
         // Update WPM and accuracy
         updateStats();
     }
@@ -286,6 +624,8 @@ public class TypingTestPanel extends JPanel {
         timer.stop();
         doneButton.setEnabled(false);
         startButton.setEnabled(true);
+        drillCheckBox.setEnabled(true);
+        endlessCheckBox.setEnabled(true);
         
         int wpm = calculateWPM();
         double accuracy = totalChars > 0 ? (double) correctChars / totalChars * 100 : 0;
@@ -294,6 +634,11 @@ public class TypingTestPanel extends JPanel {
         // Save test result to database
         saveTestResult(wpm, accuracy);
         
+        // Reweight for what this test revealed; the next drill is ready before the results are closed
+        if (drillMode) {
+            loadDrillProfile();
+        }
+        
         // Create a custom results panel
         JPanel resultsPanel = new JPanel(new GridBagLayout());
         resultsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -318,6 +663,7 @@ public class TypingTestPanel extends JPanel {
         addResultRow(resultsPanel, "Time taken:", timeElapsed + " seconds", gbc);
         addResultRow(resultsPanel, "Difficulty:", difficulty, gbc);
         addResultRow(resultsPanel, "Errors:", String.valueOf(errors), gbc);
+        addResultRow(resultsPanel, "Seed:", String.valueOf(seed), gbc);
         
         // Add view history button
         gbc.insets = new Insets(15, 5, 5, 5);
@@ -340,104 +686,141 @@ public class TypingTestPanel extends JPanel {
         panel.add(new JLabel(value), gbc);
     }
     
-    private void loadTestHistory(DefaultTableModel model) throws SQLException {
-        String sql = "SELECT testDate, timeTaken, difficulty, level, wpm, accuracy, errors " +
-                    "FROM TEST_SESSION WHERE userId = ? ORDER BY testDate DESC";
+    private void showTestHistory() {
+        // Create a dialog to display test history
+        TestHistoryDialog historyDialog = new TestHistoryDialog((Frame) SwingUtilities.getWindowAncestor(this));
+        historyDialog.setLocationRelativeTo(this);
         
-        try (Connection conn = DatabaseManager.getInstance().getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        // Load data in a background thread to prevent UI freeze, then show the dialog
+        historyDialog.loadPage();
+        historyDialog.setVisible(true);
+    }
+    
+    /**
+     * Test history dialog whose sort, filters and paging are applied in the database.
+     */
+    private class TestHistoryDialog extends JDialog {
+        private static final int PAGE_SIZE = 100;
+        private final DefaultTableModel model;
+        private final QuerySorter sorter;
+        private final HistoryFilterPanel filterPanel;
+        private final HistoryPager pager;
+        private SwingWorker<List<TestSession>, Void> worker;
+        
+        TestHistoryDialog(Frame owner) {
+            super(owner, "Test History", true);
+            setSize(900, 450);
+            setLayout(new BorderLayout());
             
-            pstmt.setInt(1, currentUser.getUserId());
-            ResultSet rs = pstmt.executeQuery();
+            // Create table model with column names
+            String[] columnNames = {"Date & Time", "WPM", "Accuracy", "Time (s)", "Difficulty", "Level", "Errors"};
+            model = new DefaultTableModel(columnNames, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false; // Make table non-editable
+                }
+            };
             
-            // Clear existing data
-            model.setRowCount(0);
+            // Create table with model; header clicks re-query instead of sorting the loaded rows
+            JTable table = new JTable(model);
+            sorter = new QuerySorter(model, new HistoryQuery.SortColumn[] {
+                HistoryQuery.SortColumn.DATE, HistoryQuery.SortColumn.WPM, HistoryQuery.SortColumn.ACCURACY,
+                HistoryQuery.SortColumn.DURATION, HistoryQuery.SortColumn.DIFFICULTY, HistoryQuery.SortColumn.LEVEL,
+                HistoryQuery.SortColumn.ERRORS
+            }, this::reloadFromFirstPage);
+            table.setRowSorter(sorter);
+            table.getTableHeader().setReorderingAllowed(false);
             
-            // Add rows from result set
-            while (rs.next()) {
-                Object[] row = {
-                    rs.getTimestamp("testDate"),
-                    rs.getInt("wpm"),
-                    String.format("%.2f%%", rs.getDouble("accuracy")),
-                    rs.getInt("timeTaken"),
-                    rs.getString("difficulty"),
-                    rs.getInt("level"),
-                    rs.getInt("errors")
-                };
-                model.addRow(row);
-            }
+            // Set column widths
+            table.getColumnModel().getColumn(0).setPreferredWidth(150); // Date & Time
+            table.getColumnModel().getColumn(1).setPreferredWidth(60);  // WPM
+            table.getColumnModel().getColumn(2).setPreferredWidth(80);  // Accuracy
+            table.getColumnModel().getColumn(3).setPreferredWidth(70);  // Time
+            table.getColumnModel().getColumn(4).setPreferredWidth(80);  // Difficulty
+            table.getColumnModel().getColumn(5).setPreferredWidth(50);  // Level
+            table.getColumnModel().getColumn(6).setPreferredWidth(60);  // Errors
+            
+            // Filters above the table
+            filterPanel = new HistoryFilterPanel(this::reloadFromFirstPage);
+            add(filterPanel, BorderLayout.NORTH);
+            
+            // Add table to scroll pane
+            JScrollPane scrollPane = new JScrollPane(table);
+            add(scrollPane, BorderLayout.CENTER);
+            
+            // Add paging and close button
+            pager = new HistoryPager(PAGE_SIZE, this::loadPage);
+            JButton closeButton = new JButton("Close");
+            closeButton.addActionListener(e -> dispose());
+            
+            JPanel buttonPanel = new JPanel(new BorderLayout());
+            buttonPanel.add(pager, BorderLayout.CENTER);
+            buttonPanel.add(closeButton, BorderLayout.EAST);
+            add(buttonPanel, BorderLayout.SOUTH);
         }
-    }
-    
-    private void showTestHistory() {
-        // Create a dialog to display test history
-        JDialog historyDialog = new JDialog((Frame)SwingUtilities.getWindowAncestor(this), "Test History", true);
-        historyDialog.setSize(800, 400);
-        historyDialog.setLocationRelativeTo(this);
-        historyDialog.setLayout(new BorderLayout());
         
-        // Create table model with column names
-        String[] columnNames = {"Date & Time", "WPM", "Accuracy", "Time (s)", "Difficulty", "Level", "Errors"};
-        DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table non-editable
-            }
-        };
+        private void reloadFromFirstPage() {
+            pager.firstPage();
+            loadPage();
+        }
         
-        // Create table with model
-        JTable table = new JTable(model);
-        table.setAutoCreateRowSorter(true);
-        table.getTableHeader().setReorderingAllowed(false);
-        
-        // Set column widths
-        table.getColumnModel().getColumn(0).setPreferredWidth(150); // Date & Time
-        table.getColumnModel().getColumn(1).setPreferredWidth(60);  // WPM
-        table.getColumnModel().getColumn(2).setPreferredWidth(80);  // Accuracy
-        table.getColumnModel().getColumn(3).setPreferredWidth(70);  // Time
-        table.getColumnModel().getColumn(4).setPreferredWidth(80);  // Difficulty
-        table.getColumnModel().getColumn(5).setPreferredWidth(50);  // Level
-        table.getColumnModel().getColumn(6).setPreferredWidth(60);  // Errors
-        
-        // Add table to scroll pane
-        JScrollPane scrollPane = new JScrollPane(table);
-        historyDialog.add(scrollPane, BorderLayout.CENTER);
-        
-        // Add close button
-        JButton closeButton = new JButton("Close");
-        closeButton.addActionListener(e -> historyDialog.dispose());
-        
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-        buttonPanel.add(closeButton);
-        historyDialog.add(buttonPanel, BorderLayout.SOUTH);
-        
-        // Load data in a background thread to prevent UI freeze
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                loadTestHistory(model);
-                return null;
+        void loadPage() {
+            if (worker != null && !worker.isDone()) {
+                worker.cancel(false);
             }
+            HistoryQuery query = filterPanel.applyTo(HistoryQuery.builder(currentUser.getUserId()))
+                .sort(sorter.getSortColumn(), sorter.isAscending())
+                .page(pager.getOffset(), pager.getPageSize())
+                .build();
             
-            @Override
-            protected void done() {
-                try {
-                    get(); // Check for exceptions
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(
-                        historyDialog,
-                        "Error loading test history: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE
-                    );
+            worker = new SwingWorker<>() {
+                private int total;
+                
+                @Override
+                protected List<TestSession> doInBackground() throws Exception {
+                    // Shares the cached history with ViewHistory; the session just saved is already included
+                    HistoryRepository repository = HistoryRepository.getInstance();
+                    total = repository.count(query);
+                    return repository.find(query);
                 }
-            }
-        };
-        
-        worker.execute();
+                
+                @Override
+                protected void done() {
+                    if (isCancelled()) return;
+                    try {
+                        addHistoryRows(get());
+                        pager.setTotal(total);
+                    } catch (Exception e) {
+                        pager.loadFailed();
+                        JOptionPane.showMessageDialog(
+                            TestHistoryDialog.this,
+                            "Error loading test history: " + e.getMessage(),
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+                }
+            };
+            worker.execute();
+        }
         
-        // Show the dialog
-        historyDialog.setVisible(true);
+        private void addHistoryRows(List<TestSession> sessions) {
+            // Clear existing data
+            model.setRowCount(0);
+            
+            for (TestSession session : sessions) {
+                Object[] row = {
+                    session.getTestDate() != null ? Timestamp.valueOf(session.getTestDate()) : null,
+                    (int) session.getWpm(),
+                    String.format("%.2f%%", session.getAccuracy()),
+                    session.getTimeTaken(),
+                    session.getDifficulty(),
+                    session.isEndless() ? "Endless" : session.getLevel(),
+                    session.getErrors()
+                };
+                model.addRow(row);
+            }
+        }
     }
     
     private void saveTestResult(int wpm, double accuracy) {
@@ -457,6 +840,9 @@ public class TypingTestPanel extends JPanel {
                 errors
             );
             
+            // A drill also depends on the bigram profile at the time, so its seed alone cannot regenerate it
+            session.setSource(source);
+            session.setSeed(source != TestSession.PassageSource.DRILL ? seed : null);
             LOGGER.info("Created test session: " + session);
             
             // Clear the typed text for the next test
@@ -464,6 +850,10 @@ public class TypingTestPanel extends JPanel {
             
             // Save to database
             DatabaseManager.getInstance().saveTestSession(session);
+            DatabaseManager.getInstance().saveBigramStats(currentUser.getUserId(), testBigrams);
+            if (userBigrams != null && bigramsUserId == currentUser.getUserId()) {
+                userBigrams.merge(testBigrams);
+            }
             
             System.out.println("Test result saved - WPM: " + wpm + ", Accuracy: " + accuracy + "%");
         } catch (SQLException e) {
@@ -0,0 +1,16 @@
+package org.example.service;
+
+import org.example.model.User;
+
+/**
+ * Published after a user's credentials have been verified.
+ */
+public class UserLoggedInEvent {
+    private final User user;
+
+    public UserLoggedInEvent(User user) {
+        this.user = user;
+    }
+
+    public User getUser() { return user; }
+}
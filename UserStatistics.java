@@ -0,0 +1,91 @@
+package org.example.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running aggregates of a user's test sessions.
+ * Sums are kept instead of averages so a new session can be folded in without a rescan.
+ */
+public class UserStatistics {
+    private int totalTests;
+    private double sumWpm;
+    private double bestWpm;
+    private double sumAccuracy;
+    private final Map<String, double[]> wpmByDifficulty = new HashMap<>(); // {sum, count}
+    private final Map<Integer, double[]> wpmByLevel = new HashMap<>();     // {sum, count}
+
+    public UserStatistics() {}
+
+    /**
+     * Builds statistics from a columnar snapshot.
+     * @param columns The user's sessions
+     */
+    public UserStatistics(SessionColumns columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            addSession(columns.getDifficulty(i), columns.getLevel(i), columns.getWpm(i), columns.getAccuracy(i));
+        }
+    }
+
+    /**
+     * Creates a copy of the given statistics.
+     * @param other The statistics to copy
+     */
+    public UserStatistics(UserStatistics other) {
+        this.totalTests = other.totalTests;
+        this.sumWpm = other.sumWpm;
+        this.bestWpm = other.bestWpm;
+        this.sumAccuracy = other.sumAccuracy;
+        other.wpmByDifficulty.forEach((key, value) -> wpmByDifficulty.put(key, value.clone()));
+        other.wpmByLevel.forEach((key, value) -> wpmByLevel.put(key, value.clone()));
+    }
+
+    /**
+     * Folds a session into the aggregates.
+     * @param session The session to add
+     */
+    public void addSession(TestSession session) {
+        addSession(session.getDifficulty(), session.getLevel(), session.getWpm(), session.getAccuracy());
+    }
+
+    public void addSession(String difficulty, int level, double wpm, double accuracy) {
+        bestWpm = totalTests == 0 ? wpm : Math.max(bestWpm, wpm);
+        totalTests++;
+        sumWpm += wpm;
+        sumAccuracy += accuracy;
+
+        if (difficulty != null) {
+            // Difficulty is stored in mixed case; group case-insensitively
+            double[] bucket = wpmByDifficulty.computeIfAbsent(difficulty.toUpperCase(), k -> new double[2]);
+            bucket[0] += wpm;
+            bucket[1]++;
+        }
+        double[] levelBucket = wpmByLevel.computeIfAbsent(level, k -> new double[2]);
+        levelBucket[0] += wpm;
+        levelBucket[1]++;
+    }
+
+    public int getTotalTests() { return totalTests; }
+
+    public double getAverageWpm() {
+        return totalTests == 0 ? 0.0 : sumWpm / totalTests;
+    }
+
+    public double getBestWpm() { return bestWpm; }
+
+    public double getAverageAccuracy() {
+        return totalTests == 0 ? 0.0 : sumAccuracy / totalTests;
+    }
+
+    public Map<String, Double> getAverageWpmByDifficulty() {
+        Map<String, Double> averages = new HashMap<>();
+        wpmByDifficulty.forEach((key, value) -> averages.put(key, value[0] / value[1]));
+        return averages;
+    }
+
+    public Map<Integer, Double> getAverageWpmByLevel() {
+        Map<Integer, Double> averages = new HashMap<>();
+        wpmByLevel.forEach((key, value) -> averages.put(key, value[0] / value[1]));
+        return averages;
+    }
+}
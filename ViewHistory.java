@@ -1,17 +1,42 @@
 package org.example.view.panels;
 
-import org.example.database.DatabaseManager;
+import org.example.database.HistoryQuery;
+import org.example.database.HistoryRepository;
+import org.example.model.TestSession;
 import org.example.model.User;
 import org.example.view.MainFrame;
+import org.example.view.ManagedView;
+import org.example.view.QuerySorter;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
-import java.sql.*;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ViewHistory extends JPanel implements ManagedView {
+    private static final int PAGE_SIZE = 200;
+    // Sort column for each table column, in model order
+    private static final HistoryQuery.SortColumn[] SORT_COLUMNS = {
+        HistoryQuery.SortColumn.DATE, HistoryQuery.SortColumn.DURATION, HistoryQuery.SortColumn.DIFFICULTY,
+        HistoryQuery.SortColumn.LEVEL, HistoryQuery.SortColumn.WPM, HistoryQuery.SortColumn.ACCURACY,
+        HistoryQuery.SortColumn.ERRORS
+    };
+    // DateTimeFormatter is immutable and thread-safe, so one instance serves every row
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-public class ViewHistory extends JPanel {
     private final User currentUser;
     private final MainFrame parentFrame;
+    private final HistoryTableModel model = new HistoryTableModel();
+    private JProgressBar progressBar;
+    private QuerySorter sorter;
+    private HistoryFilterPanel filterPanel;
+    private HistoryPager pager;
+    private final CardLayout contentLayout = new CardLayout();
+    private final JPanel contentPanel = new JPanel(contentLayout);
+    private JLabel emptyMessageLabel;
+    private SwingWorker<HistoryPage, Void> loadWorker;
 
     public ViewHistory(MainFrame parent, User user) {
         super(new BorderLayout());
@@ -24,9 +49,6 @@ public class ViewHistory extends JPanel {
         setLayout(new BorderLayout());
         setPreferredSize(new Dimension(700, 400));
 
-        // Create table model with column names
-        String[] columnNames = {"Date & Time", "Duration", "Difficulty", "Level", "WPM", "Accuracy", "Errors"};
-        DefaultTableModel model = new DefaultTableModel(columnNames, 0);
         JTable table = new JTable(model);
         
         // Make table non-editable
@@ -35,13 +57,34 @@ public class ViewHistory extends JPanel {
         // Enable row selection
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         
-        // Add table to scroll pane
+        // Header clicks sort in the database and reload from the first page
+        sorter = new QuerySorter(model, SORT_COLUMNS, this::reloadFromFirstPage);
+        table.setRowSorter(sorter);
+        
+        // Add table to scroll pane; an empty-history message replaces it when there are no rows
         JScrollPane scrollPane = new JScrollPane(table);
-        add(scrollPane, BorderLayout.CENTER);
+        contentPanel.add(scrollPane, "TABLE");
+        contentPanel.add(createEmptyPanel(), "EMPTY");
+        add(contentPanel, BorderLayout.CENTER);
+        
+        // Filters above a progress indicator shown while a page loads
+        filterPanel = new HistoryFilterPanel(this::reloadFromFirstPage);
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setStringPainted(true);
+        progressBar.setString("Loading history...");
+        progressBar.setVisible(false);
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.add(filterPanel, BorderLayout.NORTH);
+        northPanel.add(progressBar, BorderLayout.SOUTH);
+        add(northPanel, BorderLayout.NORTH);
+        
+        pager = new HistoryPager(PAGE_SIZE, this::loadTestHistory);
         
         // Add back button
         JButton backButton = new JButton("Back to Dashboard");
         backButton.addActionListener(e -> {
+            cancelLoading();
             if (parentFrame != null) {
                 parentFrame.showView("DASHBOARD");
             }
@@ -49,124 +92,182 @@ public class ViewHistory extends JPanel {
         
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         buttonPanel.add(backButton);
-        add(buttonPanel, BorderLayout.SOUTH);
-        
-        // Load data from database
-        loadTestHistory(model);
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(pager, BorderLayout.NORTH);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
+    }
+
+    public User getUser() {
+        return currentUser;
+    }
+
+    @Override
+    public void onStart() {
+        // Reload in the background each time the view is shown
+        loadTestHistory();
+    }
+
+    @Override
+    public void onStop() {
+        cancelLoading();
     }
 
     /**
-     * Checks if a table exists in the database
+     * Cancels an in-progress history load, if any.
      */
-    private boolean tableExists(Connection conn, String tableName) throws SQLException {
-        DatabaseMetaData meta = conn.getMetaData();
-        try (ResultSet rs = meta.getTables(null, null, tableName, null)) {
-            return rs.next();
+    public void cancelLoading() {
+        if (loadWorker != null && !loadWorker.isDone()) {
+            loadWorker.cancel(false);
         }
     }
 
-    private void loadTestHistory(DefaultTableModel model) {
-        // Clear existing rows
-        model.setRowCount(0);
-        
-        try (Connection conn = DatabaseManager.getInstance().getConnection()) {
-            // Check if table exists
-            if (!tableExists(conn, "TEST_SESSION")) {
-                showNoTestsMessage("The test history table doesn't exist yet.");
-                return;
-            }
-            
-            // SQL query to get test history
-            String sql = "SELECT testDate, timeTaken, difficulty, level, wpm, accuracy, errors " +
-                       "FROM TEST_SESSION WHERE userId = ? ORDER BY testDate DESC";
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, currentUser.getUserId());
+    private void reloadFromFirstPage() {
+        pager.firstPage();
+        loadTestHistory();
+    }
+
+    private void loadTestHistory() {
+        cancelLoading();
+        contentLayout.show(contentPanel, "TABLE");
+        progressBar.setVisible(true);
+
+        HistoryQuery query = filterPanel.applyTo(HistoryQuery.builder(currentUser.getUserId()))
+            .sort(sorter.getSortColumn(), sorter.isAscending())
+            .page(pager.getOffset(), pager.getPageSize())
+            .build();
+
+        loadWorker = new SwingWorker<>() {
+            @Override
+            protected HistoryPage doInBackground() throws Exception {
+                // Filtering, sorting and paging run in SQL; repeated pages come from the shared history cache
+                HistoryRepository repository = HistoryRepository.getInstance();
+                int total = repository.count(query);
+                List<TestSession> sessions = repository.find(query);
                 
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    boolean hasRecords = false;
-                    
-                    while (rs.next()) {
-                        hasRecords = true;
-                        try {
-                            // Format the date and time
-                            Timestamp timestamp = rs.getTimestamp("testDate");
-                            String formattedDateTime = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(timestamp);
-                            
-                            // Convert milliseconds to minutes and seconds
-                            long totalSeconds = rs.getLong("timeTaken") / 1000;
-                            long minutes = totalSeconds / 60;
-                            long seconds = totalSeconds % 60;
-                            String formattedTime = String.format("%d:%02d", minutes, seconds);
-                            
-                            Object[] row = {
-                                formattedDateTime,
-                                formattedTime,
-                                rs.getString("difficulty").toUpperCase(),
-                                rs.getInt("level"),
-                                rs.getInt("wpm"),
-                                String.format("%.2f%%", rs.getDouble("accuracy")),
-                                rs.getInt("errors")
-                            };
-                            model.addRow(row);
-                        } catch (SQLException e) {
-                            System.err.println("Error processing row: " + e.getMessage());
-                        }
+                List<Object[]> rows = new ArrayList<>(sessions.size());
+                for (TestSession session : sessions) {
+                    rows.add(toRow(session));
+                }
+                return new HistoryPage(rows, total);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    // A reload's newer worker owns the progress bar; only hide it if none replaced this one
+                    if (loadWorker == this) {
+                        progressBar.setVisible(false);
                     }
-                    
-                    if (!hasRecords) {
-                        showNoTestsMessage("You haven't completed any typing tests yet.");
+                    return;
+                }
+                progressBar.setVisible(false);
+                try {
+                    HistoryPage page = get();
+                    model.setRows(page.rows);
+                    pager.setTotal(page.total);
+                    if (page.total == 0) {
+                        showNoTestsMessage(filterPanel.isFiltered()
+                            ? "No tests match the current filters."
+                            : "You haven't completed any typing tests yet.");
                     }
+                } catch (Exception e) {
+                    pager.loadFailed();
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("Database error in loadTestHistory: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(ViewHistory.this,
+                        "Error loading test history: " + cause.getMessage(),
+                        "Database Error",
+                        JOptionPane.ERROR_MESSAGE);
                 }
             }
-            
-        } catch (SQLException e) {
-            System.err.println("Database error in loadTestHistory: " + e.getMessage());
-            JOptionPane.showMessageDialog(this,
-                "Error loading test history: " + e.getMessage(),
-                "Database Error",
-                JOptionPane.ERROR_MESSAGE);
+        };
+        loadWorker.execute();
+    }
+
+    private static Object[] toRow(TestSession session) {
+        // Format the date and time
+        String formattedDateTime = session.getTestDate() != null ? session.getTestDate().format(DATE_FORMAT) : "";
+        
+        // Convert milliseconds to minutes and seconds
+        long totalSeconds = session.getTimeTaken() / 1000;
+        long minutes = totalSeconds / 60;
+        long seconds = totalSeconds % 60;
+        String formattedTime = String.format("%d:%02d", minutes, seconds);
+        
+        String difficulty = session.getDifficulty();
+        return new Object[] {
+            formattedDateTime,
+            formattedTime,
+            difficulty != null ? difficulty.toUpperCase() : "",
+            session.isEndless() ? "Endless" : session.getLevel(),
+            (int) session.getWpm(),
+            String.format("%.2f%%", session.getAccuracy()),
+            session.getErrors()
+        };
+    }
+
+    /**
+     * One page of formatted rows and the number of rows across all pages.
+     */
+    private static class HistoryPage {
+        final List<Object[]> rows;
+        final int total;
+
+        HistoryPage(List<Object[]> rows, int total) {
+            this.rows = rows;
+            this.total = total;
         }
     }
+
+    /**
+     * Read-only table model holding the current page, replaced with a single change event.
+     */
+    private static class HistoryTableModel extends AbstractTableModel {
+        private static final String[] COLUMN_NAMES = {"Date & Time", "Duration", "Difficulty", "Level", "WPM", "Accuracy", "Errors"};
+        private List<Object[]> rows = new ArrayList<>();
+
+        void setRows(List<Object[]> newRows) {
+            rows = newRows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() { return rows.size(); }
+
+        @Override
+        public int getColumnCount() { return COLUMN_NAMES.length; }
+
+        @Override
+        public String getColumnName(int column) { return COLUMN_NAMES[column]; }
+
+        @Override
+        public Object getValueAt(int row, int column) { return rows.get(row)[column]; }
+
+        @Override
+        public boolean isCellEditable(int row, int column) { return false; }
+    }
     
-    private void showNoTestsMessage(String message) {
-        // Clear existing components
-        removeAll();
-        
+    private JPanel createEmptyPanel() {
         // Create main panel with border layout
         JPanel mainPanel = new JPanel(new BorderLayout(10, 20));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         
         // Create message label
-        JLabel messageLabel = new JLabel("<html><div style='text-align: center;'>"
+        emptyMessageLabel = new JLabel();
+        emptyMessageLabel.setHorizontalAlignment(JLabel.CENTER);
+        
+        // Add message to main panel
+        mainPanel.add(emptyMessageLabel, BorderLayout.CENTER);
+        return mainPanel;
+    }
+    
+    private void showNoTestsMessage(String message) {
+        emptyMessageLabel.setText("<html><div style='text-align: center;'>"
                 + "<h2>No Test History Found</h2>"
                 + "<p>" + message + "</p>"
                 + "<p>Complete a test to see your performance history here.</p>"
                 + "</div></html>");
-        messageLabel.setHorizontalAlignment(JLabel.CENTER);
-        
-        // Add message to main panel
-        mainPanel.add(messageLabel, BorderLayout.CENTER);
-        
-        // Create button panel
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
-        
-        // Add back button
-        JButton backButton = new JButton("Back to Dashboard");
-        backButton.addActionListener(e -> {
-            if (parentFrame != null) {
-                parentFrame.showView("DASHBOARD");
-            }
-        });
-        buttonPanel.add(backButton);
-        
-        // Add components to main panel
-        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
-        
-        // Update the UI
-        setLayout(new BorderLayout());
-        add(mainPanel, BorderLayout.CENTER);
-        revalidate();
-        repaint();
+        contentLayout.show(contentPanel, "EMPTY");
     }
 }
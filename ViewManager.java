@@ -0,0 +1,140 @@
+package org.example.view;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Creates card views lazily, reuses them across navigations and drives their lifecycle hooks.
+ * Each navigation is timed and logged together with the heap in use and its change.
+ */
+public class ViewManager {
+    private static final Logger LOGGER = Logger.getLogger(ViewManager.class.getName());
+
+    private final JPanel cardPanel;
+    private final CardLayout cardLayout;
+    private final Map<String, Supplier<? extends JPanel>> factories = new HashMap<>();
+    private final Map<String, JPanel> views = new LinkedHashMap<>();
+    private final Map<String, NavigationStats> stats = new LinkedHashMap<>();
+    private String currentView;
+
+    /**
+     * Timing totals for navigations to one view.
+     */
+    public static class NavigationStats {
+        private int navigations;
+        private int creations;
+        private long totalNanos;
+        private long maxNanos;
+
+        public int getNavigations() { return navigations; }
+        public int getCreations() { return creations; }
+        public double getAverageMillis() { return navigations == 0 ? 0 : totalNanos / 1e6 / navigations; }
+        public double getMaxMillis() { return maxNanos / 1e6; }
+    }
+
+    public ViewManager(JPanel cardPanel, CardLayout cardLayout) {
+        this.cardPanel = cardPanel;
+        this.cardLayout = cardLayout;
+    }
+
+    /**
+     * Registers how to create a view. Nothing is constructed until the view is first needed.
+     * @param name The card name
+     * @param factory Creates the panel
+     */
+    public void register(String name, Supplier<? extends JPanel> factory) {
+        factories.put(name, factory);
+    }
+
+    /**
+     * Gets a view, creating it on first use.
+     * @param name The card name
+     * @param type The expected panel type
+     * @return The view instance
+     */
+    public <T extends JPanel> T get(String name, Class<T> type) {
+        JPanel view = views.get(name);
+        if (view == null) {
+            Supplier<? extends JPanel> factory = factories.get(name);
+            if (factory == null) {
+                throw new IllegalArgumentException("No view registered with name: " + name);
+            }
+            view = factory.get();
+            views.put(name, view);
+            cardPanel.add(view, name);
+            stats.computeIfAbsent(name, k -> new NavigationStats()).creations++;
+        }
+        return type.cast(view);
+    }
+
+    /**
+     * Gets a view only if it has already been created.
+     * @return The view, or null
+     */
+    public <T extends JPanel> T getIfCreated(String name, Class<T> type) {
+        JPanel view = views.get(name);
+        return type.isInstance(view) ? type.cast(view) : null;
+    }
+
+    /**
+     * Shows a view, stopping the current one and starting the new one.
+     * @param name The card name
+     */
+    public void show(String name) {
+        Runtime runtime = Runtime.getRuntime();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+
+        JPanel previous = currentView != null ? views.get(currentView) : null;
+        if (previous instanceof ManagedView) {
+            ((ManagedView) previous).onStop();
+        }
+
+        JPanel view = get(name, JPanel.class);
+        cardLayout.show(cardPanel, name);
+        currentView = name;
+        if (view instanceof ManagedView) {
+            ((ManagedView) view).onStart();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        NavigationStats viewStats = stats.computeIfAbsent(name, k -> new NavigationStats());
+        viewStats.navigations++;
+        viewStats.totalNanos += elapsed;
+        viewStats.maxNanos = Math.max(viewStats.maxNanos, elapsed);
+
+        long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+        LOGGER.info(String.format("Showed %s in %.1f ms (%d views live, heap used %d KB, %+d KB)",
+            name, elapsed / 1e6, views.size(), usedAfter / 1024, (usedAfter - usedBefore) / 1024));
+    }
+
+    /**
+     * Discards a view so it is rebuilt on next use, e.g. when it holds another user's data.
+     * @param name The card name
+     */
+    public void evict(String name) {
+        JPanel view = views.remove(name);
+        if (view == null) return;
+        if (view instanceof ManagedView) {
+            ((ManagedView) view).onStop();
+            ((ManagedView) view).onDispose();
+        }
+        cardPanel.remove(view);
+        if (name.equals(currentView)) {
+            currentView = null;
+        }
+    }
+
+    public String getCurrentView() {
+        return currentView;
+    }
+
+    public Map<String, NavigationStats> getNavigationStats() {
+        return stats;
+    }
+}
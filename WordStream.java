@@ -0,0 +1,132 @@
+package org.example.util;
+
+import org.example.model.DifficultyLevel;
+
+import java.util.SplittableRandom;
+
+/**
+ * Endless text generated word by word from {@link TextGenerator}, of which only a sliding window
+ * is kept. Offsets count from the start of the stream and keep growing; the window holds the
+ * characters from {@link #getStart()} to {@link #getEnd()}. Callers generate ahead with
+ * {@link #fill(int)} and drop what has been typed with {@link #discardBefore(int)}, so memory
+ * stays within the capacity however long the stream runs.
+ * <p>
+ * Words are separated by single spaces. The same level and seed always give the same stream.
+ * Not thread-safe.
+ */
+public class WordStream {
+    private final DifficultyLevel level;
+    private final long seed;
+    private final SplittableRandom random;
+    private final StringBuilder word = new StringBuilder(32);
+
+    // The window is buffer[head, head + length); start is the stream offset of buffer[head]
+    private final char[] buffer;
+    private int head;
+    private int length;
+    private int start;
+
+    /**
+     * @param level The difficulty whose word distribution to draw from
+     * @param seed The seed
+     * @param capacity The most characters the window may hold
+     */
+    public WordStream(DifficultyLevel level, long seed, int capacity) {
+        this.level = level;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.buffer = new char[capacity];
+    }
+
+    public long getSeed() { return seed; }
+
+    /**
+     * @return The offset of the first character still in the window
+     */
+    public int getStart() { return start; }
+
+    /**
+     * @return The offset just past the last character generated
+     */
+    public int getEnd() { return start + length; }
+
+    /**
+     * @param offset An offset from {@link #getStart()} to {@link #getEnd()} - 1
+     * @return The character at that offset
+     * @throws IndexOutOfBoundsException if the offset is outside the window
+     */
+    public char charAt(int offset) {
+        if (offset < start || offset >= start + length) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " outside window [" + start + ", " + getEnd() + ")");
+        }
+        return buffer[head + offset - start];
+    }
+
+    /**
+     * Copies part of the window.
+     * @param from The first offset, at least {@link #getStart()}
+     * @param to The offset just past the last character, at most {@link #getEnd()}
+     */
+    public String substring(int from, int to) {
+        if (from < start || to > start + length || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") outside window [" + start + ", " + getEnd() + ")");
+        }
+        return new String(buffer, head + from - start, to - from);
+    }
+
+    /**
+     * Generates whole words until the stream reaches an offset.
+     * @param until The offset to generate up to; the last word may end past it
+     * @return The number of characters added
+     * @throws IllegalStateException if the window would exceed its capacity
+     */
+    public int fill(int until) {
+        int added = 0;
+        while (start + length < until) {
+            word.setLength(0);
+            if (start + length > 0) {
+                word.append(' ');
+            }
+            TextGenerator.appendText(level, 1, random, word);
+            if (head + length + word.length() > buffer.length) {
+                compact();
+                if (length + word.length() > buffer.length) {
+                    throw new IllegalStateException("Word stream window full at " + length + " characters");
+                }
+            }
+            word.getChars(0, word.length(), buffer, head + length);
+            length += word.length();
+            added += word.length();
+        }
+        return added;
+    }
+
+    /**
+     * Drops the characters before the start of the word containing an offset. Nothing is
+     * dropped while that word is the first in the window.
+     * @param offset The offset to keep
+     * @return The number of characters dropped from the front of the window
+     */
+    public int discardBefore(int offset) {
+        int keep = Math.min(Math.max(offset, start), start + length);
+        // Back up to just after the preceding space, so the window starts on a word
+        while (keep > start && keep < start + length && buffer[head + keep - 1 - start] != ' ') {
+            keep--;
+        }
+        int dropped = keep - start;
+        head += dropped;
+        length -= dropped;
+        start = keep;
+        return dropped;
+    }
+
+    /**
+     * Moves the window to the front of the buffer. This copies at most the window and happens
+     * once per buffer's worth of free space filled, so while callers keep the window well under
+     * capacity the cost per generated character stays constant.
+     */
+    private void compact() {
+        System.arraycopy(buffer, head, buffer, 0, length);
+        head = 0;
+    }
+}
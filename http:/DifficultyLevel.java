@@ -1,3 +1,5 @@
+package org.example.model;
+
 public enum DifficultyLevel {
     EASY("Easy", 60, 3, 5, 100, "The easiest level with common words and longer time limits."),
     MEDIUM("Medium", 120, 5, 3, 200, "Moderate difficulty with a mix of common and less common words."),
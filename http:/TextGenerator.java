@@ -1,53 +1,112 @@
+package org.example.util;
+
 import org.example.model.DifficultyLevel;
-import java.util.Random;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 public class TextGenerator {
     private static final String[] COMMON_WORDS = {
         "the", "be", "to", "of", "and", "a", "in", "that", "have", "I"
     };
-    
+
     private static final String[] MEDIUM_WORDS = {
         "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "pack", "my", "box"
     };
-    
+
     private static final String[] HARD_WORDS = {
         "quintessential", "juxtaposition", "xylophone", "quagmire", "kaleidoscope",
         "mnemonic", "pneumonia", "rhythm", "synecdoche", "zephyr"
     };
-    
-    private static final Random random = new Random();
-    
-    public static String generateText(DifficultyLevel level) {
-        List<String> wordPool = new ArrayList<>();
-        
-        switch (level) {
-            case EASY:
-                addWords(wordPool, COMMON_WORDS, 100);
-                break;
-            case MEDIUM:
-                addWords(wordPool, COMMON_WORDS, 50);
-                addWords(wordPool, MEDIUM_WORDS, 50);
-                break;
-            case HARD:
-                addWords(wordPool, MEDIUM_WORDS, 40);
-                addWords(wordPool, HARD_WORDS, 60);
-                break;
+
+    // Word distributions per difficulty, built once and shared by every thread
+    private static final Map<DifficultyLevel, WordDistribution> DISTRIBUTIONS = new EnumMap<>(DifficultyLevel.class);
+
+    // SplittableRandom is not thread-safe, so each thread draws from its own instance
+    private static final ThreadLocal<SplittableRandom> RANDOM = ThreadLocal.withInitial(SplittableRandom::new);
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+    // Buffers grown past this by a very long passage are not kept for reuse
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    static {
+        // Same mix as the word pools used previously: share of the pool given to each word list
+        DISTRIBUTIONS.put(DifficultyLevel.EASY, new WordDistribution()
+            .add(COMMON_WORDS, 100));
+        DISTRIBUTIONS.put(DifficultyLevel.MEDIUM, new WordDistribution()
+            .add(COMMON_WORDS, 50)
+            .add(MEDIUM_WORDS, 50));
+        DISTRIBUTIONS.put(DifficultyLevel.HARD, new WordDistribution()
+            .add(MEDIUM_WORDS, 40)
+            .add(HARD_WORDS, 60));
+        DISTRIBUTIONS.values().forEach(WordDistribution::build);
+    }
+
+    /**
+     * Words and their weights for one difficulty, sampled through an alias table.
+     */
+    private static class WordDistribution {
+        private final Map<String, Double> weights = new LinkedHashMap<>();
+        private String[] words;
+        private AliasTable table;
+
+        WordDistribution add(String[] list, int share) {
+            // Spread the list's share evenly over its words, as the repeated pool did
+            for (int i = 0; i < share; i++) {
+                weights.merge(list[i % list.length], 1.0, Double::sum);
+            }
+            return this;
+        }
+
+        void build() {
+            words = weights.keySet().toArray(new String[0]);
+            double[] w = new double[words.length];
+            for (int i = 0; i < words.length; i++) {
+                w[i] = weights.get(words[i]);
+            }
+            table = new AliasTable(w);
+        }
+
+        String next(SplittableRandom random) {
+            return words[table.sample(random)];
         }
-        
-        StringBuilder text = new StringBuilder();
-        for (int i = 0; i < level.getWordCount(); i++) {
-            if (i > 0) text.append(" ");
-            text.append(wordPool.get(random.nextInt(wordPool.size())));
+    }
+
+    public static String generateText(DifficultyLevel level) {
+        StringBuilder text = BUFFER.get();
+        text.setLength(0);
+        appendText(level, level.getWordCount(), RANDOM.get(), text);
+        String result = text.toString();
+        if (text.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
         }
-        
+        return result;
+    }
+
+    /**
+     * Generates the text a seed determines. The same seed and level always give the same text.
+     * @param level The difficulty whose word distribution to use
+     * @param seed The seed
+     * @return The generated text
+     */
+    public static String generateText(DifficultyLevel level, long seed) {
+        StringBuilder text = new StringBuilder(level.getWordCount() * 8);
+        appendText(level, level.getWordCount(), new SplittableRandom(seed), text);
         return text.toString();
     }
-    
-    private static void addWords(List<String> wordPool, String[] words, int count) {
-        for (int i = 0; i < count; i++) {
-            wordPool.add(words[i % words.length]);
-        }
-    }
+
+    /**
+     * Appends generated words to a caller-supplied buffer without any intermediate allocation.
+     * @param level The difficulty whose word distribution to use
+     * @param wordCount The number of words to append
+     * @param random The random source, e.g. a seeded one for reproducible text; must not be shared between threads
+     * @param out The buffer to append to
+     */
+    public static void appendText(DifficultyLevel level, int wordCount, SplittableRandom random, StringBuilder out) {
+        WordDistribution distribution = DISTRIBUTIONS.get(level);
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0) out.append(' ');
+            out.append(distribution.next(random));
+        }
+    }
 }
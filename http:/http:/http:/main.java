@@ -1,13 +1,25 @@
 import org.example.database.DatabaseManager;
+import org.example.util.PasswordHasher;
+import org.example.util.StartupTimeline;
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class Main {
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
+    private static final String TIMELINE_EXPORT_PROPERTY = "typing.startup.timeline";
+    private static final AtomicInteger STARTUP_THREADS = new AtomicInteger();
     public static void main(String[] args) {
+        StartupTimeline timeline = StartupTimeline.getInstance();
+        timeline.mark("main-entered");
         try {
             // Initialize logger
             System.setProperty("java.util.logging.SimpleFormatter.format",
@@ -21,8 +33,29 @@ public class Main {
                 showErrorDialog("An unexpected error occurred: " + e.getMessage());
             });
             
-            // Initialize database first
-            initializeDatabase();
+            // Database and chart warm-up run in the background while the login screen is built.
+            // UI code reaches the database only through the synchronized DatabaseManager.getInstance(),
+            // which waits for database-init to finish, and each getConnection() call opens its own
+            // connection, so the EDT and the startup threads never share or close one another's
+            ExecutorService startupExecutor = Executors.newFixedThreadPool(2, runnable -> {
+                Thread thread = new Thread(runnable, "startup-" + STARTUP_THREADS.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            CompletableFuture<Void> database = CompletableFuture
+                .runAsync(() -> timeline.run("jdbc-driver", DatabaseManager::loadDriver), startupExecutor)
+                .thenRunAsync(() -> timeline.run("database-init", Main::initializeDatabase), startupExecutor);
+            CompletableFuture<Void> charts = CompletableFuture
+                .runAsync(() -> timeline.run("chart-classes", Main::preloadChartClasses), startupExecutor);
+            // Size password hashing for this machine before the first login needs it; on failure
+            // hashes keep the default iteration count, so startup carries on
+            CompletableFuture
+                .runAsync(() -> timeline.run("password-calibration",
+                    () -> PasswordHasher.calibrate(PasswordHasher.DEFAULT_TARGET_MILLIS)), startupExecutor)
+                .exceptionally(error -> {
+                    LOGGER.log(Level.WARNING, "Password hashing calibration failed; using the default", error);
+                    return null;
+                });
             
             // Initialize UI on the Event Dispatch Thread
             SwingUtilities.invokeAndWait(() -> {
@@ -35,6 +68,19 @@ public class Main {
                 }
             });
             
+            CompletableFuture.allOf(database, charts).whenComplete((ignored, error) -> {
+                startupExecutor.shutdown();
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    String message = "Failed to initialize database: " + cause.getMessage();
+                    LOGGER.log(Level.SEVERE, message, cause);
+                    showErrorDialog(message);
+                    System.exit(1);
+                }
+                timeline.mark("startup-complete");
+                reportTimeline(timeline);
+            });
+            
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Fatal error during application startup", e);
             showErrorDialog("Fatal error during startup: " + e.getMessage());
@@ -43,44 +89,70 @@ public class Main {
     }
     
     private static void initializeDatabase() {
-        try {
-            LOGGER.info("Initializing database...");
-            // This will automatically initialize the database and create tables
-            DatabaseManager dbManager = DatabaseManager.getInstance();
-            
-            // Register shutdown hook for database cleanup
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                try {
-                    LOGGER.info("Shutting down database...");
-                    dbManager.close();
-                } catch (Exception e) {
-                    LOGGER.log(Level.SEVERE, "Error during database shutdown", e);
-                }
-            }));
-            
-            LOGGER.info("Database initialized successfully");
-            
-        } catch (Exception e) {
-            String error = "Failed to initialize database: " + e.getMessage();
-            LOGGER.log(Level.SEVERE, error, e);
-            showErrorDialog(error);
-            System.exit(1);
+        LOGGER.info("Initializing database...");
+        // This will automatically initialize the database and create tables; connections are
+        // opened and closed per operation, so none is left to close at shutdown
+        DatabaseManager.getInstance();
+        
+        LOGGER.info("Database initialized successfully");
+    }
+    
+    /**
+     * Loads and initializes the JFreeChart classes used by the performance view,
+     * so opening it for the first time does not pay the class-loading cost.
+     */
+    private static void preloadChartClasses() {
+        String[] classNames = {
+            "org.jfree.chart.ChartFactory",
+            "org.jfree.chart.ChartPanel",
+            "org.jfree.chart.JFreeChart",
+            "org.jfree.chart.axis.DateAxis",
+            "org.jfree.chart.plot.XYPlot",
+            "org.jfree.chart.plot.CategoryPlot",
+            "org.jfree.data.category.DefaultCategoryDataset",
+            "org.jfree.data.xy.XYSeriesCollection"
+        };
+        ClassLoader loader = Main.class.getClassLoader();
+        for (String className : classNames) {
+            try {
+                Class.forName(className, true, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOGGER.log(Level.WARNING, "Could not preload " + className, e);
+            }
+        }
+    }
+    
+    private static void reportTimeline(StartupTimeline timeline) {
+        timeline.print(System.out);
+        String exportPath = System.getProperty(TIMELINE_EXPORT_PROPERTY);
+        if (exportPath != null && !exportPath.isEmpty()) {
+            try {
+                timeline.exportCsv(Paths.get(exportPath));
+                LOGGER.info("Startup timeline exported to " + exportPath);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not export startup timeline", e);
+            }
         }
     }
     
     private static void initializeUI() {
+        StartupTimeline timeline = StartupTimeline.getInstance();
         try {
             LOGGER.info("Setting up look and feel...");
-            try {
-                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-            } catch (Exception e) {
-                LOGGER.log(Level.WARNING, "Could not set system look and feel", e);
-            }
+            timeline.run("look-and-feel", () -> {
+                try {
+                    UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Could not set system look and feel", e);
+                }
+            });
             
             LOGGER.info("Creating main window...");
-            org.example.view.MainFrame frame = new org.example.view.MainFrame();
+            org.example.view.MainFrame frame = timeline.call("main-frame", org.example.view.MainFrame::new);
             frame.setVisible(true);
             frame.showView("LOGIN");
+            // Runs after the events queued by showing the window, i.e. once the first frame is up
+            SwingUtilities.invokeLater(() -> timeline.mark("first-frame"));
             
             LOGGER.info("Application started successfully");
             
@@ -90,20 +90,38 @@ public class LoginPanel extends JPanel {
             return;
         }
         
-        try {
-            if (authService.login(username, password)) {
-                onLoginSuccess.run();
-            } else {
-                JOptionPane.showMessageDialog(this, 
-                    "Invalid username or password", 
-                    "Login Failed", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, 
-                "Error during login: " + ex.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+        // Verifying the hash is deliberately slow, so it runs on the hashing executor
+        setBusy(true);
+        authService.loginAsync(username, password).whenComplete((success, error) ->
+            SwingUtilities.invokeLater(() -> {
+                setBusy(false);
+                if (error instanceof SecurityException) {
+                    // Throttled or locked out
+                    JOptionPane.showMessageDialog(this, 
+                        error.getMessage(), 
+                        "Login Failed", 
+                        JOptionPane.ERROR_MESSAGE);
+                } else if (error != null) {
+                    JOptionPane.showMessageDialog(this, 
+                        "Error during login: " + error.getMessage(), 
+                        "Error", 
+                        JOptionPane.ERROR_MESSAGE);
+                } else if (success) {
+                    passwordField.setText("");
+                    onLoginSuccess.run();
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Invalid username or password", 
+                        "Login Failed", 
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }));
+    }
+
+    private void setBusy(boolean busy) {
+        loginButton.setEnabled(!busy);
+        registerButton.setEnabled(!busy);
+        passwordField.setEnabled(!busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
     }
 }
\ No newline at end of file
@@ -1,54 +1,243 @@
 PasswordHasher.java-// src/main/java/org/example/util/PasswordHasher.java
 package org.example.util;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashes in the versioned format
+ * {@code pbkdf2$<iterations>$<salt>$<hash>} (salt and hash in Base64). Each hash records its own
+ * iteration count, so the count can be raised, or calibrated per machine with
+ * {@link #calibrate(long)}, without invalidating stored hashes. Hashes in the legacy
+ * {@code <salt>:<hash>} single-round SHA-256 format still verify, and {@link #needsRehash(String)}
+ * tells callers to replace them after a successful login.
+ * <p>
+ * Hashing is deliberately slow, so callers on the EDT should use {@link #submit(Callable)}, which
+ * runs work on a small dedicated executor with a bounded queue instead of blocking the UI.
+ */
 public class PasswordHasher {
+    private static final Logger LOGGER = Logger.getLogger(PasswordHasher.class.getName());
+
+    public static final String PREFIX = "pbkdf2$";
+    public static final int DEFAULT_ITERATIONS = 310_000;
+    public static final int MIN_ITERATIONS = 100_000;
+    public static final int MAX_ITERATIONS = 10_000_000;
+    public static final long DEFAULT_TARGET_MILLIS = 250;
+
     private static final int SALT_LENGTH = 16;
-    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HASH_BITS = 256;
+    private static final String KDF_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String LEGACY_HASH_ALGORITHM = "SHA-256";
+    private static final int CALIBRATION_ITERATIONS = 20_000;
+    private static final int QUEUE_CAPACITY = 16;
+    // Calibration reruns at each startup and its result jitters, so only a clearly weaker hash is upgraded
+    private static final double REHASH_FRACTION = 0.8;
 
-    public static String hashPassword(String password) {
-        try {
-            byte[] salt = generateSalt();
-            byte[] hash = calculateHash(password, salt);
-            return Base64.getEncoder().encodeToString(salt) + ":" + 
-                   Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Error hashing password", e);
+    // SecureRandom is thread-safe; seeding one per salt was needlessly slow
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static volatile int iterations = DEFAULT_ITERATIONS;
+
+    /**
+     * Hashing threads, created on first use. Never more than two, so concurrent logins cannot
+     * take every core; a full queue rejects work rather than letting it pile up.
+     */
+    private static class ExecutorHolder {
+        static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            int threads = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+            return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
         }
     }
 
+    /**
+     * @return The iteration count new hashes are created with
+     */
+    public static int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Sets the iteration count for new hashes. Existing hashes keep verifying with their own count.
+     * @param count At least {@link #MIN_ITERATIONS}, at most {@link #MAX_ITERATIONS}
+     */
+    public static void setIterations(int count) {
+        if (count < MIN_ITERATIONS || count > MAX_ITERATIONS) {
+            throw new IllegalArgumentException("Iterations must be " + MIN_ITERATIONS + " to " + MAX_ITERATIONS + ": " + count);
+        }
+        iterations = count;
+    }
+
+    public static String hashPassword(String password) {
+        byte[] salt = generateSalt();
+        int count = iterations;
+        byte[] hash = pbkdf2(password, salt, count, HASH_BITS);
+        return PREFIX + count + "$" + Base64.getEncoder().encodeToString(salt) + "$" +
+               Base64.getEncoder().encodeToString(hash);
+    }
+
     public static boolean verifyPassword(String password, String storedHash) {
+        if (password == null || storedHash == null) {
+            return false;
+        }
         try {
-            String[] parts = storedHash.split(":");
-            if (parts.length != 2) {
+            if (!storedHash.startsWith(PREFIX)) {
+                return verifyLegacyPassword(password, storedHash);
+            }
+            String[] parts = storedHash.split("\\$");
+            if (parts.length != 4) {
+                return false;
+            }
+            int count = Integer.parseInt(parts[1]);
+            // A tampered count must not make verification run for minutes
+            if (count < 1 || count > MAX_ITERATIONS) {
+                return false;
+            }
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expectedHash = Base64.getDecoder().decode(parts[3]);
+            if (expectedHash.length == 0) {
                 return false;
             }
-            
-            byte[] salt = Base64.getDecoder().decode(parts[0]);
-            byte[] expectedHash = Base64.getDecoder().decode(parts[1]);
-            byte[] actualHash = calculateHash(password, salt);
-            
+            byte[] actualHash = pbkdf2(password, salt, count, expectedHash.length * 8);
             return MessageDigest.isEqual(expectedHash, actualHash);
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * Tells whether a stored hash should be replaced by {@link #hashPassword(String)} once the
+     * password has been verified: it is in the legacy format, below {@link #MIN_ITERATIONS}, or
+     * uses under 80% of the iterations new hashes do. The margin keeps calibration noise from
+     * costing a second full hash on every login.
+     * @param storedHash The stored hash
+     * @return true if the hash should be upgraded
+     */
+    public static boolean needsRehash(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(PREFIX)) {
+            return true;
+        }
+        String[] parts = storedHash.split("\\$");
+        try {
+            int floor = Math.max(MIN_ITERATIONS, (int) (iterations * REHASH_FRACTION));
+            return parts.length != 4 || Integer.parseInt(parts[1]) < floor;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Picks the iteration count that makes one hash take about the target time on this machine,
+     * and uses it for new hashes. The count is clamped to [{@link #MIN_ITERATIONS},
+     * {@link #MAX_ITERATIONS}] so a slow machine never weakens hashes below the floor.
+     * @param targetMillis The time one hash should take
+     * @return The chosen iteration count
+     */
+    public static int calibrate(long targetMillis) {
+        byte[] salt = new byte[SALT_LENGTH];
+        // The first run also warms up the JIT; the fastest of the rest is the least disturbed
+        pbkdf2("calibration", salt, CALIBRATION_ITERATIONS, HASH_BITS);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            pbkdf2("calibration", salt, CALIBRATION_ITERATIONS, HASH_BITS);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        double nanosPerIteration = (double) Math.max(fastest, 1) / CALIBRATION_ITERATIONS;
+        long count = Math.round(targetMillis * 1_000_000.0 / nanosPerIteration / 1000) * 1000;
+        int calibrated = (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, count));
+        iterations = calibrated;
+        LOGGER.info(String.format("Calibrated password hashing to %d iterations (%.0f ns each, target %d ms)",
+            calibrated, nanosPerIteration, targetMillis));
+        return calibrated;
+    }
+
+    /**
+     * Calibrates on the hashing executor; see {@link #calibrate(long)}.
+     */
+    public static CompletableFuture<Integer> calibrateAsync(long targetMillis) {
+        return submit(() -> calibrate(targetMillis));
+    }
+
+    /**
+     * Runs password work, such as a login that verifies a hash, on the hashing executor.
+     * @param task The work
+     * @return A future completed with the task's result or exception, or failed with a
+     *         {@link RejectedExecutionException} if too much work is already queued
+     */
+    public static <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            ExecutorHolder.EXECUTOR.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public static CompletableFuture<String> hashPasswordAsync(String password) {
+        return submit(() -> hashPassword(password));
+    }
+
+    public static CompletableFuture<Boolean> verifyPasswordAsync(String password, String storedHash) {
+        return submit(() -> verifyPassword(password, storedHash));
+    }
+
     private static byte[] generateSalt() {
         byte[] salt = new byte[SALT_LENGTH];
-        new SecureRandom().nextBytes(salt);
+        RANDOM.nextBytes(salt);
         return salt;
     }
 
-    private static byte[] calculateHash(String password, byte[] salt) 
+    private static byte[] pbkdf2(String password, byte[] salt, int count, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, count, bits);
+        try {
+            return SecretKeyFactory.getInstance(KDF_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error hashing password", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static boolean verifyLegacyPassword(String password, String storedHash)
             throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
-        digest.reset();
+        String[] parts = storedHash.split(":");
+        if (parts.length != 2) {
+            return false;
+        }
+
+        byte[] salt = Base64.getDecoder().decode(parts[0]);
+        byte[] expectedHash = Base64.getDecoder().decode(parts[1]);
+        MessageDigest digest = MessageDigest.getInstance(LEGACY_HASH_ALGORITHM);
         digest.update(salt);
-        return digest.digest(password.getBytes());
+        byte[] actualHash = digest.digest(password.getBytes());
+
+        return MessageDigest.isEqual(expectedHash, actualHash);
     }
-}
\ No newline at end of file
+}
@@ -124,24 +124,34 @@ public class RegisterPanel extends JPanel {
             return;
         }
         
-        try {
-            if (authService.register(username, password, email)) {
-                JOptionPane.showMessageDialog(this, 
-                    "Registration successful! Please login.", 
-                    "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-                onBackToLogin.run();
-            } else {
-                JOptionPane.showMessageDialog(this, 
-                    "Username already exists", 
-                    "Registration Failed", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, 
-                "Error during registration: " + ex.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+        // Hashing is deliberately slow, so it runs on the hashing executor
+        setBusy(true);
+        authService.registerAsync(username, password, email).whenComplete((success, error) ->
+            SwingUtilities.invokeLater(() -> {
+                setBusy(false);
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, 
+                        "Error during registration: " + error.getMessage(), 
+                        "Error", 
+                        JOptionPane.ERROR_MESSAGE);
+                } else if (success) {
+                    JOptionPane.showMessageDialog(this, 
+                        "Registration successful! Please login.", 
+                        "Success", 
+                        JOptionPane.INFORMATION_MESSAGE);
+                    onBackToLogin.run();
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Username already exists", 
+                        "Registration Failed", 
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            }));
+    }
+
+    private void setBusy(boolean busy) {
+        registerButton.setEnabled(!busy);
+        backButton.setEnabled(!busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
     }
 }
\ No newline at end of file